@@ -2,12 +2,16 @@ package com.hemanthjangam.store.carts;
 
 import com.hemanthjangam.store.products.Product;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -24,56 +28,123 @@ public class Cart {
     @Column(name = "date_created", insertable = false, updatable = false)
     private LocalDate date = LocalDate.now();
 
+    /** Last change to the cart or its items; carts idle past {@code carts.expiry.ttl} are deleted. */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    /**
+     * Incremented by every committed change to the cart or its items and exposed as the cart's ETag.
+     * Item edits do not touch this row, so the stores bump it themselves (see
+     * {@link CartRepository#incrementVersion}) rather than relying on {@code @Version}.
+     */
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "cart", cascade = CascadeType.MERGE, orphanRemoval = true, fetch = FetchType.EAGER)
     private Set<CartItem> items = new LinkedHashSet<>();
 
-    public BigDecimal getTotalPrice() {
+    /**
+     * Items by product id plus running totals. Built from {@link #items} the first time a lookup or
+     * total is needed and then kept current by the mutators below, so code that only rewrites rows
+     * (the write-behind flush) never pays for it. Changes made through {@code getItems()} directly
+     * must call {@link #reindex()}.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Long, CartItem> index;
 
-//        BigDecimal total = BigDecimal.ZERO;
-//        for(CartItem item : items) {
-//            total = total.add(item.getTotalPrice());
-//        }
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CartPricing pricing;
 
-        return items.stream()
-                .map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public BigDecimal getTotalPrice() {
+        return pricing().total();
     }
 
     public CartItem getItem(Long productId) {
-        return items.stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElse(null);
+        return index().get(productId);
     }
 
     public CartItem addItem(Product product) {
+        return addItem(product, 1);
+    }
+
+    public CartItem addItem(Product product, int quantity) {
         var cartItem = getItem(product.getId());
         if (cartItem != null) {
-            cartItem.setQuantity(cartItem.getQuantity() + 1);
-        }else {
+            cartItem.setQuantity(cartItem.getQuantity() + quantity);
+        } else {
             cartItem = new CartItem();
             cartItem.setProduct(product);
-            cartItem.setQuantity(1);
+            cartItem.setQuantity(quantity);
             cartItem.setCart(this);
             items.add(cartItem);
+            index.put(product.getId(), cartItem);
+        }
+        if (pricing != null) {
+            pricing.add(product.getId(), CartPricing.toMinor(product.getPrice()), quantity);
         }
 
         return cartItem;
     }
 
-    public void removeItem(Long productId) {
+    /** Sets the quantity of an item already in the cart; returns {@code null} when there is none. */
+    public CartItem updateItem(Long productId, int quantity) {
         var cartItem = getItem(productId);
-        if(cartItem != null) {
+        if (cartItem == null) {
+            return null;
+        }
+        cartItem.setQuantity(quantity);
+        if (pricing != null) {
+            pricing.setQuantity(productId, CartPricing.toMinor(cartItem.getProduct().getPrice()), quantity);
+        }
+
+        return cartItem;
+    }
+
+    public void removeItem(Long productId) {
+        var cartItem = index().remove(productId);
+        if (cartItem != null) {
             items.remove(cartItem);
-            cartItem. setCart(null);
+            cartItem.setCart(null);
+            if (pricing != null) {
+                pricing.remove(productId);
+            }
         }
     }
 
     public void clear() {
         items.clear();
+        reindex();
     }
 
     public boolean isEmpty() {
         return items.isEmpty();
     }
+
+    /** Drops the index and totals so they are rebuilt from {@link #items} on next use. */
+    public void reindex() {
+        index = null;
+        pricing = null;
+    }
+
+    private Map<Long, CartItem> index() {
+        if (index == null) {
+            index = new HashMap<>();
+            items.forEach(item -> index.put(item.getProduct().getId(), item));
+        }
+        return index;
+    }
+
+    private CartPricing pricing() {
+        if (pricing == null) {
+            var built = new CartPricing();
+            items.forEach(item -> built.add(item.getProduct().getId(),
+                    CartPricing.toMinor(item.getProduct().getPrice()), item.getQuantity()));
+            pricing = built;
+        }
+        return pricing;
+    }
 }
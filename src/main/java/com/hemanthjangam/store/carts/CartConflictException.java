@@ -0,0 +1,7 @@
+package com.hemanthjangam.store.carts;
+
+public class CartConflictException extends RuntimeException {
+    public CartConflictException() {
+        super("Cart was updated concurrently; reload it and try again");
+    }
+}
@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,6 +14,11 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.UUID;
 
+/**
+ * Cart responses carry the cart's version as a strong {@code ETag}. Mutations accept it back in
+ * {@code If-Match}: a stale value gets {@code 412}, a write that loses a race with another one gets
+ * {@code 409}, and without the header a mutation applies to whatever the cart holds now.
+ */
 @AllArgsConstructor
 @RestController
 @RequestMapping("/carts")
@@ -27,7 +34,7 @@ public class CartController {
 
         var uri = uriBuilder.path("/carts/{id}").buildAndExpand(cartDto.getId()).toUri();
 
-        return ResponseEntity.created(uri).body(cartDto);
+        return ResponseEntity.created(uri).eTag(eTag(cartDto.getVersion())).body(cartDto);
     }
 
     @PostMapping("/{cartId}/items")
@@ -35,38 +42,83 @@ public class CartController {
     public ResponseEntity<CartItemDto> addToCart(
             @Parameter(description = "The ID of the cart.")
             @PathVariable UUID cartId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody AddItemToCartRequest request) {
-        var cartItemDto = cartService.addToCart(cartId, request.getProductId());
+        var cartItemDto = cartService.addToCart(cartId, request.getProductId(), expectedVersion(ifMatch));
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(cartItemDto);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(cartItemDto.getCartVersion())).body(cartItemDto);
     }
 
     @GetMapping("/{cartId}")
-    public CartDto getCart(@PathVariable UUID cartId) {
-        return cartService.getCart(cartId);
+    public ResponseEntity<CartDto> getCart(@PathVariable UUID cartId) {
+        var cartDto = cartService.getCart(cartId);
+
+        // A matching If-None-Match is answered with 304 by Spring once the ETag is set.
+        return ResponseEntity.ok().eTag(eTag(cartDto.getVersion())).body(cartDto);
+    }
+
+    @PatchMapping("/{cartId}")
+    @Operation(summary = "Applies a batch of item operations to the cart in one transaction")
+    public ResponseEntity<CartDto> updateCart(
+            @Parameter(description = "The ID of the cart.")
+            @PathVariable UUID cartId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateCartRequest request) {
+        var cartDto = cartService.updateCart(cartId, request.getOperations(), expectedVersion(ifMatch));
+
+        return ResponseEntity.ok().eTag(eTag(cartDto.getVersion())).body(cartDto);
     }
 
     @PutMapping("/{cartId}/items/{productId}")
-    public CartItemDto updateItem(
+    public ResponseEntity<CartItemDto> updateItem(
             @PathVariable("cartId") UUID cartId,
             @PathVariable("productId") Long productId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateCartItemRequest request) {
-        return cartService.updateItem(cartId, productId, request.getQuantity());
+        var cartItemDto = cartService.updateItem(cartId, productId, request.getQuantity(), expectedVersion(ifMatch));
+
+        return ResponseEntity.ok().eTag(eTag(cartItemDto.getCartVersion())).body(cartItemDto);
     }
 
     @DeleteMapping("/{cartId}/items/{productId}")
-    public ResponseEntity<?> removeItem(
+    public ResponseEntity<Void> removeItem(
             @PathVariable("cartId") UUID cartId,
-            @PathVariable("productId") Long productId) {
-        cartService.removeItem(cartId, productId);
+            @PathVariable("productId") Long productId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var version = cartService.removeItem(cartId, productId, expectedVersion(ifMatch));
 
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.noContent().eTag(eTag(version)).build();
     }
 
     @DeleteMapping("/{cartId}/items")
-    public ResponseEntity<Void> clearCart(@PathVariable UUID cartId) {
-        cartService.clearCart(cartId);
+    public ResponseEntity<Void> clearCart(
+            @PathVariable UUID cartId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var version = cartService.clearCart(cartId, expectedVersion(ifMatch));
+
+        return ResponseEntity.noContent().eTag(eTag(version)).build();
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
 
-        return ResponseEntity.noContent().build();
+    // If-Match takes one strong tag or "*"; weak, unrecognised or multiple tags are treated as not matching.
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        var tags = ETag.parse(ifMatch);
+        if (tags.size() == 1 && tags.get(0).isWildcard()) {
+            return null;
+        }
+        if (tags.size() != 1 || tags.get(0).weak()) {
+            throw new CartVersionMismatchException();
+        }
+        try {
+            return Long.parseLong(tags.get(0).tag());
+        } catch (NumberFormatException e) {
+            throw new CartVersionMismatchException();
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.hemanthjangam.store.carts;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -12,4 +13,7 @@ public class CartDto {
     private UUID id;
     private List<CartItemDto> items = new ArrayList<>();
     private BigDecimal totalPrice = BigDecimal.ZERO;
+
+    @JsonIgnore
+    private long version;
 }
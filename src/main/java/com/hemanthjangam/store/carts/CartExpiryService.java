@@ -0,0 +1,113 @@
+package com.hemanthjangam.store.carts;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deletes carts nobody has changed for {@code carts.expiry.ttl}, so anonymous carts created for every
+ * visitor do not accumulate. Each run walks {@code idx_carts_updated_at} in batches of
+ * {@code carts.expiry.batch-size}; every batch is its own short transaction that locks the candidate
+ * rows, re-checks their age under the lock and deletes their items and the carts. A cart changed
+ * after it was picked is therefore kept, and a write racing the delete waits for it and then finds
+ * the cart gone. Several nodes can run the sweep at once: a batch another node already deleted
+ * simply locks and deletes nothing.
+ */
+@Slf4j
+@Service
+public class CartExpiryService {
+    private static final String FIND_EXPIRED = "SELECT id FROM carts WHERE updated_at < ? ORDER BY updated_at LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int batchSize;
+    private final Counter deletedCounter;
+    private final Timer runTimer;
+
+    public CartExpiryService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${carts.expiry.ttl:30d}") Duration ttl,
+                             @Value("${carts.expiry.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.batchSize = Math.max(1, batchSize);
+        this.deletedCounter = Counter.builder("carts.expired")
+                .description("Carts deleted after staying unchanged past their TTL")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("carts.expiry.run")
+                .description("Time taken by one expired-cart sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${carts.expiry.interval:1h}", initialDelayString = "${carts.expiry.interval:1h}")
+    public void expire() {
+        var deleted = runTimer.record(this::deleteExpired);
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} carts idle for more than {}", deleted, ttl);
+        }
+    }
+
+    private Integer deleteExpired() {
+        var cutoff = LocalDateTime.now().minus(ttl);
+        var deleted = 0;
+        try {
+            while (true) {
+                var candidates = jdbcTemplate.queryForList(FIND_EXPIRED, Object.class, cutoff, batchSize);
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                var batch = deleteBatch(candidates, cutoff);
+                deleted += batch;
+                deletedCounter.increment(batch);
+                if (candidates.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            // A lock timeout or deadlock with a concurrent sweep; what is left goes on the next run.
+            log.warn("Expired cart sweep stopped after deleting {} carts", deleted, e);
+        }
+        return deleted;
+    }
+
+    private int deleteBatch(List<Object> candidates, LocalDateTime cutoff) {
+        return transactionTemplate.execute(status -> {
+            var locked = jdbcTemplate.queryForList(
+                    "SELECT id FROM carts WHERE id IN (" + placeholders(candidates.size()) + ") AND updated_at < ? FOR UPDATE",
+                    Object.class, withCutoff(candidates, cutoff));
+            if (locked.isEmpty()) {
+                return 0;
+            }
+            var ids = locked.toArray();
+            var inList = placeholders(ids.length);
+            jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (" + inList + ")", ids);
+            return jdbcTemplate.update("DELETE FROM carts WHERE id IN (" + inList + ")", ids);
+        });
+    }
+
+    private static Object[] withCutoff(List<Object> ids, LocalDateTime cutoff) {
+        var args = new ArrayList<>(ids);
+        args.add(cutoff);
+        return args.toArray();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
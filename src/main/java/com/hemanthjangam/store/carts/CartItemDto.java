@@ -1,5 +1,6 @@
 package com.hemanthjangam.store.carts;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -9,4 +10,7 @@ public class CartItemDto {
     private CartProductDto product;
     private int quantity;
     private BigDecimal totalPrice;
+
+    @JsonIgnore
+    private long cartVersion;
 }
@@ -12,5 +12,6 @@ public interface CartMapper {
 
     @Mapping(target = "totalPrice", expression = "java(cartItem.getTotalPrice())")
     @Mapping(target = "product", source = "product")
+    @Mapping(target = "cartVersion", ignore = true)
     CartItemDto toDto(CartItem cartItem);
 }
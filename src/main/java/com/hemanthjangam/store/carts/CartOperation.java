@@ -0,0 +1,45 @@
+package com.hemanthjangam.store.carts;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * One step of a {@code PATCH /carts/{cartId}} batch. {@code ADD} takes an optional quantity
+ * (default 1) and adds to what is already in the cart; {@code SET_QUANTITY} requires the product to
+ * be in the cart already, like {@code PUT /carts/{cartId}/items/{productId}}.
+ */
+@Data
+public class CartOperation {
+    public enum Type {
+        ADD,
+        SET_QUANTITY,
+        REMOVE,
+        CLEAR
+    }
+
+    @NotNull(message = "Operation type must be provided")
+    private Type type;
+
+    private Long productId;
+
+    @Min(value = 1, message = "Quantity must be greater than zero")
+    @Max(value = 100, message = "Quantity must be less than or equal to 100.")
+    private Integer quantity;
+
+    @AssertTrue(message = "Product id must be provided")
+    private boolean isProductIdPresent() {
+        return type == null || type == Type.CLEAR || productId != null;
+    }
+
+    @AssertTrue(message = "Quantity must be provided")
+    private boolean isQuantityPresent() {
+        return type != Type.SET_QUANTITY || quantity != null;
+    }
+
+    public int quantityOrDefault() {
+        return quantity != null ? quantity : 1;
+    }
+}
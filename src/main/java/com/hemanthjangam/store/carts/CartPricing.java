@@ -0,0 +1,149 @@
+package com.hemanthjangam.store.carts;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+/**
+ * Running totals for one cart, kept in minor currency units (cents; prices are stored as
+ * {@code DECIMAL(10, 2)}). Lines are indexed by product id, and every add, quantity change, reprice
+ * or removal adjusts the cart total by that line's difference, so reading the total never walks the
+ * items. Amounts only become {@link BigDecimal} at the API boundary through {@link #toDecimal}.
+ * <p>
+ * Not thread-safe; callers own the cart it belongs to.
+ */
+public class CartPricing {
+    static final int SCALE = 2;
+
+    private final LinkedHashMap<Long, Line> lines = new LinkedHashMap<>();
+    private long totalMinor;
+
+    /** Adds {@code quantity} units of a product, creating its line if needed; returns the line. */
+    public Line add(Long productId, long unitPriceMinor, int quantity) {
+        var line = lines.get(productId);
+        if (line == null) {
+            line = new Line(productId, unitPriceMinor, 0);
+            lines.put(productId, line);
+        }
+        reprice(line, unitPriceMinor);
+        return update(line, line.quantity + quantity);
+    }
+
+    /** Sets the quantity of an existing line; returns {@code null} when the product is not in the cart. */
+    public Line setQuantity(Long productId, long unitPriceMinor, int quantity) {
+        var line = lines.get(productId);
+        if (line == null) {
+            return null;
+        }
+        reprice(line, unitPriceMinor);
+        return update(line, quantity);
+    }
+
+    /** Applies a new unit price to a line, if the product is in the cart. */
+    public void reprice(Long productId, long unitPriceMinor) {
+        var line = lines.get(productId);
+        if (line != null) {
+            reprice(line, unitPriceMinor);
+        }
+    }
+
+    public boolean remove(Long productId) {
+        var line = lines.remove(productId);
+        if (line == null) {
+            return false;
+        }
+        totalMinor = Math.subtractExact(totalMinor, line.totalMinor);
+        return true;
+    }
+
+    public void clear() {
+        lines.clear();
+        totalMinor = 0;
+    }
+
+    /** An independent copy, for applying changes that may still be abandoned. */
+    public CartPricing copy() {
+        var copy = new CartPricing();
+        lines.values().forEach(line -> copy.add(line.productId, line.unitPriceMinor, line.quantity));
+        return copy;
+    }
+
+    public Line line(Long productId) {
+        return lines.get(productId);
+    }
+
+    /** Lines in the order their products were first added. */
+    public Collection<Line> lines() {
+        return Collections.unmodifiableCollection(lines.values());
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public long totalMinor() {
+        return totalMinor;
+    }
+
+    public BigDecimal total() {
+        return toDecimal(totalMinor);
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    private void reprice(Line line, long unitPriceMinor) {
+        if (line.unitPriceMinor != unitPriceMinor) {
+            line.unitPriceMinor = unitPriceMinor;
+            update(line, line.quantity);
+        }
+    }
+
+    private Line update(Line line, int quantity) {
+        var lineTotal = Math.multiplyExact(line.unitPriceMinor, (long) quantity);
+        totalMinor = Math.addExact(totalMinor, lineTotal - line.totalMinor);
+        line.quantity = quantity;
+        line.totalMinor = lineTotal;
+        return line;
+    }
+
+    public static final class Line {
+        private final Long productId;
+        private long unitPriceMinor;
+        private int quantity;
+        private long totalMinor;
+
+        private Line(Long productId, long unitPriceMinor, int quantity) {
+            this.productId = productId;
+            this.unitPriceMinor = unitPriceMinor;
+            this.quantity = quantity;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public long getUnitPriceMinor() {
+            return unitPriceMinor;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getTotalMinor() {
+            return totalMinor;
+        }
+
+        public BigDecimal getTotal() {
+            return toDecimal(totalMinor);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hemanthjangam.store.carts;
 
+import com.hemanthjangam.store.common.ImageVariants;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -10,4 +11,8 @@ public class CartProductDto {
     private String name;
     private BigDecimal price;
     private String imageUrl;
+
+    public ImageVariants getImages() {
+        return ImageVariants.of(imageUrl);
+    }
 }
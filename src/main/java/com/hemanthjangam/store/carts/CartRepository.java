@@ -1,10 +1,16 @@
 package com.hemanthjangam.store.carts;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +18,21 @@ public interface CartRepository extends JpaRepository<Cart, UUID> {
     @EntityGraph(attributePaths = "items.product")
     @Query("SELECT c FROM Cart c WHERE c.id = :cartId")
     Optional<Cart> getCartWithItems(@Param("cartId") UUID cartId);
+
+    // Compare-and-set on the version read with the cart: 0 rows means another write committed since,
+    // and the row lock taken here makes a concurrent writer wait and then see the new version.
+    @Modifying
+    @Query("UPDATE Cart c SET c.version = c.version + 1, c.updatedAt = :updatedAt " +
+            "WHERE c.id = :cartId AND c.version = :version")
+    int incrementVersion(@Param("cartId") UUID cartId,
+                         @Param("version") long version,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    @EntityGraph(attributePaths = "items.product")
+    List<Cart> findByIdIn(Collection<UUID> ids);
+
+    // Row locks for writing carts back; taken in id order so two writers cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.id IN :ids ORDER BY c.id")
+    List<Cart> lockByIdIn(@Param("ids") Collection<UUID> ids);
 }
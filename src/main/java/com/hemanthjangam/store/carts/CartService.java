@@ -1,80 +1,49 @@
 package com.hemanthjangam.store.carts;
 
-import com.hemanthjangam.store.products.ProductNotFoundException;
-import com.hemanthjangam.store.products.ProductRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @AllArgsConstructor
-@Transactional(readOnly = true)
 public class CartService {
-    private final CartRepository cartRepository;
-    private final CartMapper cartMapper;
-    private final ProductRepository productRepository;
+    private final CartStore cartStore;
 
-    @Transactional
     public CartDto createCart() {
-        var cart = new Cart();
-        cartRepository.save(cart);
-
-        return cartMapper.toDto(cart);
+        return cartStore.create();
     }
 
-    @Transactional
-    public CartItemDto addToCart(UUID cartId, Long productId) {
-        var cart = getCartEntity(cartId);
-        var product = productRepository.findById(productId).orElseThrow(ProductNotFoundException::new);
-
-        var cartItem = cart.addItem(product);
-
-        cartRepository.save(cart);
-
-        return cartMapper.toDto(cartItem);
+    public CartItemDto addToCart(UUID cartId, Long productId, Long expectedVersion) {
+        return cartStore.addItem(cartId, productId, expectedVersion);
     }
 
     public CartDto getCart(UUID cartId) {
-        return cartMapper.toDto(getCartEntity(cartId));
+        return cartStore.get(cartId);
     }
 
-    @Transactional
-    public CartItemDto updateItem(UUID cartId, Long productId, Integer quantity) {
-        var cart = getCartEntity(cartId);
-
-        var cartItem = cart.getItem(productId);
-        if (cartItem == null) {
-            throw new ProductNotFoundException();
-        }
-
-        cartItem.setQuantity(quantity);
-        cartRepository.save(cart);
-
-        return cartMapper.toDto(cartItem);
+    public CartItemDto updateItem(UUID cartId, Long productId, Integer quantity, Long expectedVersion) {
+        return cartStore.updateItem(cartId, productId, quantity, expectedVersion);
     }
 
-    @Transactional
-    public void removeItem(UUID cartId, Long productId) {
-        var cart = getCartEntity(cartId);
-
-        cart.removeItem(productId);
-
-        cartRepository.save(cart);
+    public long removeItem(UUID cartId, Long productId, Long expectedVersion) {
+        return cartStore.removeItem(cartId, productId, expectedVersion);
     }
 
-    @Transactional
     public void clearCart(UUID cartId) {
-        var cart = getCartEntity(cartId);
+        clearCart(cartId, null);
+    }
 
-        cart.clear();
+    public long clearCart(UUID cartId, Long expectedVersion) {
+        return cartStore.clear(cartId, expectedVersion);
+    }
 
-        cartRepository.save(cart);
+    public CartDto updateCart(UUID cartId, List<CartOperation> operations, Long expectedVersion) {
+        return cartStore.apply(cartId, operations, expectedVersion);
     }
 
-    private Cart getCartEntity(UUID cartId) {
-        return cartRepository.getCartWithItems(cartId)
-                .orElseThrow(CartNotFoundException::new);
+    public void flushCart(UUID cartId) {
+        cartStore.flush(cartId);
     }
 }
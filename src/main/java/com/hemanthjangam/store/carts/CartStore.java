@@ -0,0 +1,38 @@
+package com.hemanthjangam.store.carts;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Where cart state lives between requests. {@link JpaCartStore} (the default) reads and writes the
+ * {@code carts}/{@code cart_items} tables on every call; {@link WriteBehindCartStore} keeps active
+ * carts in memory and writes them back in batches. Selected with {@code carts.store.mode}.
+ * <p>
+ * Every mutation increments the cart's version and returns the new one. {@code expectedVersion}
+ * (from {@code If-Match}) makes a mutation conditional: it throws
+ * {@link CartVersionMismatchException} unless the cart is still at that version, and {@code null}
+ * applies it regardless. A write that loses a race with another write throws
+ * {@link CartConflictException} instead of overwriting it.
+ */
+public interface CartStore {
+    CartDto create();
+
+    CartDto get(UUID cartId);
+
+    CartItemDto addItem(UUID cartId, Long productId, Long expectedVersion);
+
+    CartItemDto updateItem(UUID cartId, Long productId, int quantity, Long expectedVersion);
+
+    long removeItem(UUID cartId, Long productId, Long expectedVersion);
+
+    long clear(UUID cartId, Long expectedVersion);
+
+    /** Applies the operations in order, all or none, and returns the resulting cart. */
+    CartDto apply(UUID cartId, List<CartOperation> operations, Long expectedVersion);
+
+    /**
+     * Makes the database copy of a cart current, e.g. before checkout reads it through JPA. Throws
+     * when the write fails, so the caller does not go on with a stale copy.
+     */
+    void flush(UUID cartId);
+}
@@ -0,0 +1,7 @@
+package com.hemanthjangam.store.carts;
+
+public class CartVersionMismatchException extends RuntimeException {
+    public CartVersionMismatchException() {
+        super("Cart has changed since it was read");
+    }
+}
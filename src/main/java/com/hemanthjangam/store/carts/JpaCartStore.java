@@ -0,0 +1,176 @@
+package com.hemanthjangam.store.carts;
+
+import com.hemanthjangam.store.products.Product;
+import com.hemanthjangam.store.products.ProductNotFoundException;
+import com.hemanthjangam.store.products.ProductRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor
+@Transactional(readOnly = true)
+@ConditionalOnProperty(prefix = "carts.store", name = "mode", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+    private final CartRepository cartRepository;
+    private final CartMapper cartMapper;
+    private final ProductRepository productRepository;
+
+    @Override
+    @Transactional
+    public CartDto create() {
+        var cart = new Cart();
+        cartRepository.save(cart);
+
+        return cartMapper.toDto(cart);
+    }
+
+    @Override
+    public CartDto get(UUID cartId) {
+        return cartMapper.toDto(getCartEntity(cartId));
+    }
+
+    @Override
+    @Transactional
+    public CartItemDto addItem(UUID cartId, Long productId, Long expectedVersion) {
+        var cart = getCartEntity(cartId);
+        var product = productRepository.findById(productId).orElseThrow(ProductNotFoundException::new);
+        var version = claimVersion(cart, expectedVersion);
+
+        var cartItem = cart.addItem(product);
+
+        cartRepository.save(cart);
+
+        var cartItemDto = cartMapper.toDto(cartItem);
+        cartItemDto.setCartVersion(version);
+        return cartItemDto;
+    }
+
+    @Override
+    @Transactional
+    public CartItemDto updateItem(UUID cartId, Long productId, int quantity, Long expectedVersion) {
+        var cart = getCartEntity(cartId);
+        if (cart.getItem(productId) == null) {
+            throw new ProductNotFoundException();
+        }
+        var version = claimVersion(cart, expectedVersion);
+
+        var cartItem = cart.updateItem(productId, quantity);
+
+        cartRepository.save(cart);
+
+        var cartItemDto = cartMapper.toDto(cartItem);
+        cartItemDto.setCartVersion(version);
+        return cartItemDto;
+    }
+
+    @Override
+    @Transactional
+    public long removeItem(UUID cartId, Long productId, Long expectedVersion) {
+        var cart = getCartEntity(cartId);
+        var version = claimVersion(cart, expectedVersion);
+
+        cart.removeItem(productId);
+
+        cartRepository.save(cart);
+
+        return version;
+    }
+
+    @Override
+    @Transactional
+    public long clear(UUID cartId, Long expectedVersion) {
+        var cart = getCartEntity(cartId);
+        var version = claimVersion(cart, expectedVersion);
+
+        cart.clear();
+
+        cartRepository.save(cart);
+
+        return version;
+    }
+
+    @Override
+    @Transactional
+    public CartDto apply(UUID cartId, List<CartOperation> operations, Long expectedVersion) {
+        var cart = getCartEntity(cartId);
+        var version = claimVersion(cart, expectedVersion);
+
+        var productIds = operations.stream()
+                .filter(operation -> operation.getType() == CartOperation.Type.ADD)
+                .map(CartOperation::getProductId)
+                .collect(Collectors.toSet());
+        var products = new HashMap<Long, Product>();
+        productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+        if (products.size() != productIds.size()) {
+            throw new ProductNotFoundException();
+        }
+
+        // Hibernate inserts new items before deleting orphaned ones, so removals are flushed before a
+        // later add; otherwise re-adding a removed product collides with its old row on the
+        // (cart_id, product_id) key.
+        var removed = false;
+        for (var operation : operations) {
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (removed) {
+                        cartRepository.flush();
+                        removed = false;
+                    }
+                    cart.addItem(products.get(operation.getProductId()), operation.quantityOrDefault());
+                }
+                case SET_QUANTITY -> {
+                    if (cart.updateItem(operation.getProductId(), operation.getQuantity()) == null) {
+                        throw new ProductNotFoundException();
+                    }
+                }
+                case REMOVE -> {
+                    cart.removeItem(operation.getProductId());
+                    removed = true;
+                }
+                case CLEAR -> {
+                    cart.clear();
+                    removed = true;
+                }
+            }
+        }
+
+        cartRepository.save(cart);
+
+        var cartDto = cartMapper.toDto(cart);
+        cartDto.setVersion(version);
+        return cartDto;
+    }
+
+    @Override
+    public void flush(UUID cartId) {
+        // Every change is already in the database.
+    }
+
+    /**
+     * Checks {@code expectedVersion} against the version the cart was read at, then moves the row to
+     * the next version only if nobody else has in the meantime. Returns the new version; the loaded
+     * entity keeps the old one so Hibernate does not write the column again.
+     */
+    private long claimVersion(Cart cart, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != cart.getVersion()) {
+            throw new CartVersionMismatchException();
+        }
+        if (cartRepository.incrementVersion(cart.getId(), cart.getVersion(), LocalDateTime.now()) == 0) {
+            throw new CartConflictException();
+        }
+        return cart.getVersion() + 1;
+    }
+
+    private Cart getCartEntity(UUID cartId) {
+        return cartRepository.getCartWithItems(cartId)
+                .orElseThrow(CartNotFoundException::new);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hemanthjangam.store.carts;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UpdateCartRequest {
+    @NotEmpty(message = "At least one operation must be provided")
+    @Size(max = 100, message = "At most 100 operations can be sent at once")
+    private List<@Valid @NotNull CartOperation> operations;
+}
@@ -0,0 +1,464 @@
+package com.hemanthjangam.store.carts;
+
+import com.hemanthjangam.store.products.CatalogSnapshot;
+import com.hemanthjangam.store.products.CatalogSnapshotService;
+import com.hemanthjangam.store.products.ProductMapper;
+import com.hemanthjangam.store.products.ProductNotFoundException;
+import com.hemanthjangam.store.products.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps active carts in memory and writes them back to {@code carts}/{@code cart_items} behind the
+ * request path. A cart is loaded once (one query) on first use; after that reads and mutations touch
+ * only memory and the in-memory catalog snapshot, serialized per cart by locking its state. Dirty
+ * carts are written every {@code carts.store.flush-interval} in batches of
+ * {@code carts.store.flush-batch-size}, on checkout, and on shutdown, so a crash loses at most one
+ * flush interval of cart edits. Every write runs in a transaction of its own, even when the caller
+ * already has one, so a cart is only marked clean once its rows are committed. Carts idle for
+ * {@code carts.store.idle-timeout} are evicted once clean, and the least recently used clean carts
+ * go first when {@code carts.store.max-carts} is exceeded.
+ * <p>
+ * The memory is per node: run this mode on a single node or behind cart-affine routing.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "carts.store", name = "mode", havingValue = "memory")
+public class WriteBehindCartStore implements CartStore {
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<UUID, CartState> carts = new ConcurrentHashMap<>();
+    private final int maxCarts;
+    private final Duration idleTimeout;
+    private final int flushBatchSize;
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Counter evictedCounter;
+
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                ProductRepository productRepository,
+                                ProductMapper productMapper,
+                                CatalogSnapshotService catalogSnapshotService,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${carts.store.max-carts:100000}") int maxCarts,
+                                @Value("${carts.store.idle-timeout:30m}") Duration idleTimeout,
+                                @Value("${carts.store.flush-batch-size:500}") int flushBatchSize) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxCarts = maxCarts;
+        this.idleTimeout = idleTimeout;
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+        this.flushTimer = Timer.builder("carts.store.flush")
+                .description("Time to write one batch of dirty carts")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("carts.store.flushed").tag("outcome", "written").register(meterRegistry);
+        this.failedCounter = Counter.builder("carts.store.flushed").tag("outcome", "failed").register(meterRegistry);
+        this.evictedCounter = Counter.builder("carts.store.evictions").register(meterRegistry);
+        Gauge.builder("carts.store.size", carts, Map::size)
+                .description("Carts held in memory")
+                .register(meterRegistry);
+        Gauge.builder("carts.store.dirty", carts, map -> map.values().stream().filter(CartState::isDirty).count())
+                .description("Carts with changes not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CartDto create() {
+        var cart = cartRepository.save(new Cart());
+        var state = new CartState(cart.getId(), cart.getVersion());
+        carts.put(cart.getId(), state);
+        enforceCapacity();
+
+        return toDto(state, catalogSnapshotService.current());
+    }
+
+    @Override
+    public CartDto get(UUID cartId) {
+        return access(cartId, false, null, state -> toDto(state, catalogSnapshotService.current()));
+    }
+
+    @Override
+    public CartItemDto addItem(UUID cartId, Long productId, Long expectedVersion) {
+        var catalog = catalogSnapshotService.current();
+        var product = catalog.findProduct(productId).orElseThrow(ProductNotFoundException::new);
+        var unitPrice = CartPricing.toMinor(product.getPrice());
+
+        return access(cartId, true, expectedVersion, state -> {
+            var line = state.pricing.add(productId, unitPrice, 1);
+            return toItemDto(productMapper.toCartProductDto(product), line, state.version);
+        });
+    }
+
+    @Override
+    public CartItemDto updateItem(UUID cartId, Long productId, int quantity, Long expectedVersion) {
+        var catalog = catalogSnapshotService.current();
+
+        return access(cartId, true, expectedVersion, state -> {
+            var product = catalog.findProduct(productId).orElseThrow(ProductNotFoundException::new);
+            var line = state.pricing.setQuantity(productId, CartPricing.toMinor(product.getPrice()), quantity);
+            if (line == null) {
+                throw new ProductNotFoundException();
+            }
+            return toItemDto(productMapper.toCartProductDto(product), line, state.version);
+        });
+    }
+
+    @Override
+    public long removeItem(UUID cartId, Long productId, Long expectedVersion) {
+        return access(cartId, true, expectedVersion, state -> {
+            state.pricing.remove(productId);
+            return state.version;
+        });
+    }
+
+    @Override
+    public long clear(UUID cartId, Long expectedVersion) {
+        return access(cartId, true, expectedVersion, state -> {
+            state.pricing.clear();
+            return state.version;
+        });
+    }
+
+    /**
+     * Applies the batch to a copy of the cart's lines and swaps it in only when every operation
+     * succeeded. Products being added are checked against the catalog snapshot, so the batch costs no
+     * query once the cart is in memory.
+     */
+    @Override
+    public CartDto apply(UUID cartId, List<CartOperation> operations, Long expectedVersion) {
+        var catalog = catalogSnapshotService.current();
+        var prices = new HashMap<Long, Long>();
+        for (var operation : operations) {
+            if (operation.getType() == CartOperation.Type.ADD) {
+                var product = catalog.findProduct(operation.getProductId()).orElseThrow(ProductNotFoundException::new);
+                prices.put(product.getId(), CartPricing.toMinor(product.getPrice()));
+            }
+        }
+
+        return access(cartId, true, expectedVersion, state -> {
+            var pricing = state.pricing.copy();
+            for (var operation : operations) {
+                var productId = operation.getProductId();
+                switch (operation.getType()) {
+                    case ADD -> pricing.add(productId, prices.get(productId), operation.quantityOrDefault());
+                    case SET_QUANTITY -> {
+                        var line = pricing.line(productId);
+                        if (line == null) {
+                            throw new ProductNotFoundException();
+                        }
+                        pricing.setQuantity(productId, line.getUnitPriceMinor(), operation.getQuantity());
+                    }
+                    case REMOVE -> pricing.remove(productId);
+                    case CLEAR -> pricing.clear();
+                }
+            }
+            state.pricing = pricing;
+            return toDto(state, catalog);
+        });
+    }
+
+    @Override
+    public void flush(UUID cartId) {
+        var state = carts.get(cartId);
+        if (state == null || !state.isDirty()) {
+            return;
+        }
+        var snapshots = snapshot(List.of(state));
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        try {
+            writeAndMark(snapshots);
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${carts.store.flush-interval:5s}")
+    public void flushDirty() {
+        var batch = new ArrayList<CartState>(flushBatchSize);
+        for (var state : carts.values()) {
+            if (!state.isDirty()) {
+                continue;
+            }
+            batch.add(state);
+            if (batch.size() == flushBatchSize) {
+                flushBatch(batch);
+                batch = new ArrayList<>(flushBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushBatch(batch);
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushDirty();
+    }
+
+    /**
+     * Runs {@code action} against the cart's state under its lock, loading the cart first if it is not
+     * in memory. Retries when the state it found was evicted between the lookup and the lock.
+     * A mutation checks {@code expectedVersion} and moves the cart to its next version before
+     * {@code action} runs, so the result carries the new version; a failed action restores it.
+     * Writers to one cart are serialized here, so there is no conflict for them to lose.
+     */
+    private <T> T access(UUID cartId, boolean mutation, Long expectedVersion, Function<CartState, T> action) {
+        while (true) {
+            var state = carts.get(cartId);
+            if (state == null) {
+                var loaded = load(cartId);
+                state = carts.putIfAbsent(cartId, loaded);
+                if (state == null) {
+                    state = loaded;
+                    enforceCapacity();
+                }
+            }
+            synchronized (state) {
+                if (state.evicted) {
+                    continue;
+                }
+                state.lastAccess = System.nanoTime();
+                if (!mutation) {
+                    return action.apply(state);
+                }
+                if (expectedVersion != null && expectedVersion != state.version) {
+                    throw new CartVersionMismatchException();
+                }
+                state.version++;
+                try {
+                    return action.apply(state);
+                } catch (RuntimeException e) {
+                    state.version--;
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private CartState load(UUID cartId) {
+        var cart = cartRepository.getCartWithItems(cartId).orElseThrow(CartNotFoundException::new);
+        var state = new CartState(cartId, cart.getVersion());
+        cart.getItems().forEach(item -> state.pricing.add(item.getProduct().getId(),
+                CartPricing.toMinor(item.getProduct().getPrice()), item.getQuantity()));
+        return state;
+    }
+
+    private void flushBatch(List<CartState> states) {
+        var snapshots = snapshot(states);
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeAndMark(snapshots);
+        } catch (RuntimeException e) {
+            if (snapshots.size() == 1) {
+                failedCounter.increment();
+                log.warn("Could not write cart {}; it stays dirty and will be retried", snapshots.get(0).state().id, e);
+                return;
+            }
+            // Isolate the cart that broke the batch so the others still get written.
+            snapshots.forEach(snapshot -> flushBatch(List.of(snapshot.state())));
+        }
+    }
+
+    private List<Snapshot> snapshot(List<CartState> states) {
+        var snapshots = new ArrayList<Snapshot>(states.size());
+        for (var state : states) {
+            synchronized (state) {
+                if (!state.evicted) {
+                    var quantities = new LinkedHashMap<Long, Integer>();
+                    state.pricing.lines().forEach(line -> quantities.put(line.getProductId(), line.getQuantity()));
+                    snapshots.add(new Snapshot(state, quantities, state.version));
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    private void writeAndMark(List<Snapshot> snapshots) {
+        flushTimer.record(() -> write(snapshots));
+        markFlushed(snapshots);
+    }
+
+    private void write(List<Snapshot> snapshots) {
+        var catalog = catalogSnapshotService.current();
+        var now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            var ids = snapshots.stream().map(snapshot -> snapshot.state().id).toList();
+            // The checkout flush and the scheduled flush can write the same cart at once; the row lock
+            // makes the second wait and then reconcile against the items the first committed.
+            cartRepository.lockByIdIn(ids);
+            var entities = new HashMap<UUID, Cart>();
+            cartRepository.findByIdIn(ids).forEach(cart -> entities.put(cart.getId(), cart));
+
+            for (var snapshot : snapshots) {
+                var cart = entities.get(snapshot.state().id);
+                if (cart == null) {
+                    // Deleted underneath us (checkout on another path, expiry); forget the memory copy.
+                    evict(snapshot.state(), true);
+                    continue;
+                }
+                if (cart.getVersion() >= snapshot.version()) {
+                    // A concurrent flush already wrote this version or a newer one.
+                    entities.remove(cart.getId());
+                    continue;
+                }
+                reconcile(cart, snapshot.quantities(), catalog);
+                cart.setVersion(snapshot.version());
+                cart.setUpdatedAt(now);
+            }
+            cartRepository.saveAll(entities.values());
+        });
+        flushedCounter.increment(snapshots.size());
+    }
+
+    // Brings the entity's items in line with the snapshot; Hibernate turns the differences into SQL.
+    private void reconcile(Cart cart, Map<Long, Integer> quantities, CatalogSnapshot catalog) {
+        cart.getItems().stream()
+                .map(item -> item.getProduct().getId())
+                .filter(productId -> !quantities.containsKey(productId))
+                .toList()
+                .forEach(cart::removeItem);
+        quantities.forEach((productId, quantity) -> {
+            if (cart.updateItem(productId, quantity) == null && catalog.findProduct(productId).isPresent()) {
+                cart.addItem(productRepository.getReferenceById(productId), quantity);
+            }
+        });
+    }
+
+    private void markFlushed(List<Snapshot> snapshots) {
+        for (var snapshot : snapshots) {
+            var state = snapshot.state();
+            synchronized (state) {
+                state.flushedVersion = Math.max(state.flushedVersion, snapshot.version());
+            }
+        }
+    }
+
+    private void evictIdle() {
+        var cutoff = System.nanoTime() - idleTimeout.toNanos();
+        for (var state : carts.values()) {
+            if (state.lastAccess - cutoff < 0) {
+                evict(state, false);
+            }
+        }
+    }
+
+    // Evicts down to 90% of capacity so the scan is not repeated for every new cart.
+    private void enforceCapacity() {
+        if (carts.size() <= maxCarts) {
+            return;
+        }
+        var excess = carts.size() - maxCarts + maxCarts / 10;
+        carts.values().stream()
+                .filter(state -> !state.isDirty())
+                .sorted(Comparator.comparingLong(state -> state.lastAccess))
+                .limit(excess)
+                .forEach(state -> evict(state, false));
+    }
+
+    private void evict(CartState state, boolean discardChanges) {
+        synchronized (state) {
+            if (state.evicted || (state.isDirty() && !discardChanges)) {
+                return;
+            }
+            state.evicted = true;
+        }
+        if (carts.remove(state.id, state)) {
+            evictedCounter.increment();
+        }
+    }
+
+    private CartDto toDto(CartState state, CatalogSnapshot catalog) {
+        var cartDto = new CartDto();
+        cartDto.setId(state.id);
+        synchronized (state) {
+            // Lines carry the price seen when they were last touched; bring them up to the current
+            // catalog and leave out products deleted since.
+            var missing = 0L;
+            for (var line : state.pricing.lines()) {
+                var product = catalog.findProduct(line.getProductId());
+                if (product.isEmpty()) {
+                    missing += line.getTotalMinor();
+                    continue;
+                }
+                state.pricing.reprice(line.getProductId(), CartPricing.toMinor(product.get().getPrice()));
+                cartDto.getItems().add(toItemDto(productMapper.toCartProductDto(product.get()), line, state.version));
+            }
+            cartDto.setTotalPrice(CartPricing.toDecimal(state.pricing.totalMinor() - missing));
+            cartDto.setVersion(state.version);
+        }
+        return cartDto;
+    }
+
+    private static CartItemDto toItemDto(CartProductDto product, CartPricing.Line line, long cartVersion) {
+        var item = new CartItemDto();
+        item.setProduct(product);
+        item.setQuantity(line.getQuantity());
+        item.setTotalPrice(line.getTotal());
+        item.setCartVersion(cartVersion);
+        return item;
+    }
+
+    /**
+     * Lines and running totals of one cart; guarded by its own monitor. The version is written back
+     * with the items, so it keeps counting up across evictions and restarts.
+     */
+    private static final class CartState {
+        private final UUID id;
+        private CartPricing pricing = new CartPricing();
+        private long version;
+        private long flushedVersion;
+        private boolean evicted;
+        private volatile long lastAccess = System.nanoTime();
+
+        private CartState(UUID id, long version) {
+            this.id = id;
+            this.version = version;
+            this.flushedVersion = version;
+        }
+
+        private synchronized boolean isDirty() {
+            return version != flushedVersion;
+        }
+    }
+
+    private record Snapshot(CartState state, Map<Long, Integer> quantities, long version) {
+    }
+}
@@ -1,49 +1,239 @@
 package com.hemanthjangam.store.common;
 
+import com.hemanthjangam.store.config.ImageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
 
+/**
+ * Stores uploads under the SHA-256 of their bytes, so identical uploads share one file and a
+ * stored URL always names the same content (which is what lets {@code /images/**} be served as
+ * immutable). The hash is computed while the upload is streamed to a temporary file and the file
+ * is then renamed into place; a re-upload of existing content, like a {@link #claim} of an uploaded
+ * URL, only refreshes the file's modification time, which {@link ImageCleanupService} treats as a
+ * fresh reference.
+ */
 @Service
 public class FileStorageService {
     public static final String BASE_URL_PATH = "/images/";
+    static final String TEMP_PREFIX = ".upload-";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern STORED_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private final ImageProcessingService imageProcessingService;
+    private final Path uploadPath;
+    private final DataSize maxUploadSize;
+    private final Object[] locks = new Object[64];
+    private final Counter storedCounter;
+    private final Counter deduplicatedCounter;
+
+    public FileStorageService(ImageProcessingService imageProcessingService,
+                              ImageProperties imageProperties,
+                              MeterRegistry meterRegistry,
+                              @Value("${file.upload-dir}") String uploadDir) {
+        this.imageProcessingService = imageProcessingService;
+        this.uploadPath = Paths.get(uploadDir);
+        this.maxUploadSize = imageProperties.getUpload().getMaxSize();
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        this.storedCounter = Counter.builder("images.uploads").tag("outcome", "stored").register(meterRegistry);
+        this.deduplicatedCounter = Counter.builder("images.uploads").tag("outcome", "deduplicated").register(meterRegistry);
+    }
 
     public String storeFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Cannot store empty file.");
         }
 
-        Path uploadPath = Paths.get(uploadDir);
+        try (var input = file.getInputStream()) {
+            return store(input, file.getSize(), null);
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to store file.", ex);
+        }
+    }
+
+    /**
+     * Streams an upload to disk in a single pass: the leading bytes are checked against the accepted
+     * {@link ImageFormat}s before anything is written, the size limit is enforced on the bytes read
+     * (not just the declared length), and the SHA-256 that names the file is computed on the way
+     * through. Nothing beyond one copy buffer is held in memory, and a rejected upload stops reading
+     * at the point it became invalid.
+     *
+     * @param declaredLength the Content-Length, or {@code -1} when unknown; rejected up front if too large
+     * @param expectedDigest a client-supplied SHA-256 to verify, or {@code null}
+     */
+    public String store(InputStream input, long declaredLength, byte[] expectedDigest) {
+        var maxBytes = maxUploadSize.toBytes();
+        if (declaredLength > maxBytes) {
+            throw new ImageTooLargeException(maxUploadSize);
+        }
+
         try {
             Files.createDirectories(uploadPath);
         } catch (IOException e) {
-            throw new RuntimeException("Could not create upload directory: " + uploadDir, e);
+            throw new RuntimeException("Could not create upload directory: " + uploadPath, e);
         }
 
+        Path tempFile = null;
         try {
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            var header = input.readNBytes(ImageFormat.HEADER_LENGTH);
+            var format = ImageFormat.detect(header).orElseThrow(InvalidImageException::new);
+
+            var digest = MessageDigest.getInstance("SHA-256");
+            tempFile = Files.createTempFile(uploadPath, TEMP_PREFIX, ".tmp");
+            try (var output = Files.newOutputStream(tempFile)) {
+                digest.update(header);
+                output.write(header);
+                var buffer = new byte[COPY_BUFFER_SIZE];
+                long total = header.length;
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new ImageTooLargeException(maxUploadSize);
+                    }
+                    digest.update(buffer, 0, read);
+                    output.write(buffer, 0, read);
+                }
             }
-            String fileName = UUID.randomUUID().toString() + extension;
 
-            Path filePath = uploadPath.resolve(fileName);
-            file.transferTo(filePath.toFile());
+            var hash = digest.digest();
+            if (expectedDigest != null && !MessageDigest.isEqual(hash, expectedDigest)) {
+                throw new IllegalArgumentException("Content-Digest does not match the uploaded bytes");
+            }
+            var fileName = HexFormat.of().formatHex(hash) + "." + format.getExtension();
+            var filePath = uploadPath.resolve(fileName);
+
+            synchronized (lockFor(fileName)) {
+                if (Files.exists(filePath)) {
+                    Files.setLastModifiedTime(filePath, FileTime.from(Instant.now()));
+                    deduplicatedCounter.increment();
+                    return BASE_URL_PATH + fileName;
+                }
+                Files.move(tempFile, filePath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            storedCounter.increment();
+            imageProcessingService.submit(filePath);
 
             return BASE_URL_PATH + fileName;
 
         } catch (IOException ex) {
             throw new RuntimeException("Failed to store file.", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Reads the SHA-256 out of an RFC 9530 {@code Content-Digest} header
+     * ({@code sha-256=:<base64>:}); other algorithms are ignored.
+     */
+    public static byte[] sha256FromContentDigest(String header) {
+        if (header == null) {
+            return null;
+        }
+        for (var member : header.split(",")) {
+            var entry = member.trim();
+            if (entry.regionMatches(true, 0, "sha-256=:", 0, 9) && entry.endsWith(":") && entry.length() > 10) {
+                try {
+                    return Base64.getDecoder().decode(entry.substring(9, entry.length() - 1));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Malformed Content-Digest header");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Called before a row starts referencing an {@code /images/} URL it did not upload itself, such as
+     * one returned earlier by {@code POST /images}. Checks that the upload still exists and refreshes
+     * its modification time, so the orphan cleanup gives the row a full grace period to commit. Runs
+     * under the same lock as {@link #deleteIfOlderThan}: either the refresh lands first and the file is
+     * kept, or the file is already gone and the URL is refused.
+     *
+     * @return {@code false} if the URL does not name a stored upload
+     */
+    public boolean claim(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(BASE_URL_PATH)) {
+            return false;
+        }
+        var fileName = imageUrl.substring(BASE_URL_PATH.length());
+        if (!STORED_NAME.matcher(fileName).matches()) {
+            return false;
+        }
+
+        var filePath = uploadPath.resolve(fileName);
+        synchronized (lockFor(fileName)) {
+            try {
+                Files.setLastModifiedTime(filePath, FileTime.from(Instant.now()));
+                return true;
+            } catch (NoSuchFileException e) {
+                return false;
+            } catch (IOException e) {
+                throw new RuntimeException("Could not claim stored image " + fileName, e);
+            }
+        }
+    }
+
+    /**
+     * Deletes an upload and its variants unless it was stored or re-uploaded within {@code grace}.
+     * Runs under the same lock as the deduplication check, so an upload that resolves to this file
+     * either refreshes it before the age check or recreates it after the delete.
+     */
+    boolean deleteIfOlderThan(String fileName, Duration grace) throws IOException {
+        var filePath = uploadPath.resolve(fileName);
+        synchronized (lockFor(fileName)) {
+            if (!Files.exists(filePath)
+                    || Files.getLastModifiedTime(filePath).toInstant().isAfter(Instant.now().minus(grace))) {
+                return false;
+            }
+            Files.delete(filePath);
+        }
+        for (var variant : ImageVariant.values()) {
+            Files.deleteIfExists(uploadPath.resolve(variant.fileName(fileName)));
+        }
+        return true;
+    }
+
+    Path getUploadPath() {
+        return uploadPath;
+    }
+
+    private Object lockFor(String fileName) {
+        return locks[Math.floorMod(fileName.hashCode(), locks.length)];
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // A leftover temporary file is removed by the next orphan sweep.
         }
     }
 }
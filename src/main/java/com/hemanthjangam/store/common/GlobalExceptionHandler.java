@@ -1,7 +1,10 @@
 package com.hemanthjangam.store.common;
 
+import com.hemanthjangam.store.carts.CartConflictException;
 import com.hemanthjangam.store.carts.CartEmptyException;
 import com.hemanthjangam.store.carts.CartNotFoundException;
+import com.hemanthjangam.store.carts.CartVersionMismatchException;
+import com.hemanthjangam.store.inventory.OutOfStockException;
 import com.hemanthjangam.store.orders.OrderNotFoundException;
 import com.hemanthjangam.store.payments.PaymentException;
 import com.hemanthjangam.store.products.CategoryNotFoundException;
@@ -11,6 +14,7 @@ import com.hemanthjangam.store.users.EmailAlreadyRegisteredException;
 import com.hemanthjangam.store.users.UserNotFoundException;
 import com.hemanthjangam.store.wishlist.AlreadyInWishlistException;
 import com.hemanthjangam.store.wishlist.ItemNotFoundInWishlistException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -19,6 +23,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -65,11 +70,16 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(404).body(new ErrorDto(exception.getMessage()));
     }
 
-    @ExceptionHandler(AlreadyInWishlistException.class)
-    public ResponseEntity<ErrorDto> handleConflict(AlreadyInWishlistException exception) {
+    @ExceptionHandler({AlreadyInWishlistException.class, OutOfStockException.class, CartConflictException.class})
+    public ResponseEntity<ErrorDto> handleConflict(RuntimeException exception) {
         return ResponseEntity.status(409).body(new ErrorDto(exception.getMessage()));
     }
 
+    @ExceptionHandler(CartVersionMismatchException.class)
+    public ResponseEntity<ErrorDto> handlePreconditionFailed(CartVersionMismatchException exception) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(new ErrorDto(exception.getMessage()));
+    }
+
     @ExceptionHandler({BadCredentialsException.class, IllegalStateException.class})
     public ResponseEntity<ErrorDto> handleUnauthorized(RuntimeException exception) {
         return ResponseEntity.status(401).body(new ErrorDto(exception.getMessage()));
@@ -80,6 +90,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new ErrorDto(exception.getMessage()));
     }
 
+    // Closing the connection stops the container from draining the rest of an oversized body.
+    @ExceptionHandler({ImageTooLargeException.class, MaxUploadSizeExceededException.class})
+    public ResponseEntity<ErrorDto> handlePayloadTooLarge(RuntimeException exception) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .header(HttpHeaders.CONNECTION, "close")
+                .body(new ErrorDto(exception.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidImageException.class)
+    public ResponseEntity<ErrorDto> handleUnsupportedMediaType(InvalidImageException exception) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(new ErrorDto(exception.getMessage()));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorDto> handleAccessDenied() {
         return ResponseEntity.status(403).body(new ErrorDto("Access denied."));
@@ -0,0 +1,134 @@
+package com.hemanthjangam.store.common;
+
+import com.hemanthjangam.store.config.ImageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded, approximately LRU cache of memory-mapped image files. Mapped pages live in the OS
+ * page cache rather than the heap, so a hot thumbnail costs no heap and no read syscall per request.
+ * A hit is a concurrent map lookup plus a write of the entry's access time, so image requests never
+ * queue on a shared lock; only a miss that pushes the cache over budget takes the eviction lock and
+ * drops the least recently read entries. Upload names are content hashes, so entries almost never
+ * go stale; the serving path stats the file on every request anyway (to 404 deleted files), and
+ * {@link #get} remaps an entry whose attributes moved.
+ */
+@Component
+public class ImageCache {
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>(256);
+    private final Object evictionLock = new Object();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ImageCache(ImageProperties properties, MeterRegistry meterRegistry) {
+        this.maxBytes = properties.getCache().getMaxSize().toBytes();
+        this.maxFileBytes = properties.getCache().getMaxFileSize().toBytes();
+        this.hitCounter = Counter.builder("images.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("images.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("images.cache.size", cachedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("images.cache.entries", entries, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("images.cache.hit.ratio", this, ImageCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    public boolean accepts(long length) {
+        return length <= maxFileBytes && length <= maxBytes;
+    }
+
+    /**
+     * Returns the mapped file, mapping it on a miss. An entry whose size or modification time no
+     * longer matches {@code attributes} (a regenerated variant, a refreshed duplicate upload) is
+     * remapped. The caller must check {@link #accepts} first.
+     */
+    public CachedImage get(String key, Path file, BasicFileAttributes attributes) throws IOException {
+        var cached = entries.get(key);
+        if (cached != null && cached.image.length() == attributes.size()
+                && cached.image.lastModified() == attributes.lastModifiedTime().toMillis()) {
+            cached.lastAccess = System.nanoTime();
+            hitCounter.increment();
+            return cached.image;
+        }
+        missCounter.increment();
+
+        CachedImage loaded;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            loaded = new CachedImage(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asReadOnlyBuffer(),
+                    attributes.lastModifiedTime().toMillis());
+        }
+
+        var entry = new Entry(loaded);
+        var previous = entries.put(key, entry);
+        cachedBytes.addAndGet(loaded.length() - (previous == null ? 0 : previous.image.length()));
+        if (cachedBytes.get() > maxBytes) {
+            evict(entry);
+        }
+        return loaded;
+    }
+
+    // Drops the least recently read entries until the cache fits its budget again. Access times are
+    // read without stopping hits, so the order is approximate; the entry just loaded is never dropped.
+    private void evict(Entry loaded) {
+        synchronized (evictionLock) {
+            if (cachedBytes.get() <= maxBytes) {
+                return;
+            }
+            var candidates = new ArrayList<Map.Entry<String, Entry>>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccess));
+            for (var candidate : candidates) {
+                if (cachedBytes.get() <= maxBytes) {
+                    break;
+                }
+                var evicted = candidate.getValue();
+                if (evicted != loaded && entries.remove(candidate.getKey(), evicted)) {
+                    cachedBytes.addAndGet(-evicted.image.length());
+                }
+            }
+        }
+    }
+
+    private double hitRatio() {
+        var hits = hitCounter.count();
+        var total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private static final class Entry {
+        private final CachedImage image;
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(CachedImage image) {
+            this.image = image;
+        }
+    }
+
+    /** A mapped file; {@link #content()} hands out an independent view for each response. */
+    public record CachedImage(ByteBuffer buffer, long lastModified) {
+        public long length() {
+            return buffer.capacity();
+        }
+
+        public ByteBuffer content() {
+            return buffer.duplicate();
+        }
+    }
+}
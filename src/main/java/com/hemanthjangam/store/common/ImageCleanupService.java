@@ -0,0 +1,129 @@
+package com.hemanthjangam.store.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reclaims uploads that no product or category points at any more. Because storage is content
+ * addressed, one file can back many rows, so a file is only deleted once its reference count across
+ * {@code products.image_url} and {@code categories.image_url} is zero. Writes that drop an image
+ * {@link #release} it and a short periodic pass re-counts just those files; a nightly sweep catches
+ * everything else (direct SQL edits, releases lost to a restart, abandoned temporary files). Files
+ * younger than the grace period are always kept so an upload is never deleted before the row that
+ * references it commits.
+ */
+@Slf4j
+@Service
+public class ImageCleanupService {
+    private static final String COUNT_REFERENCES = """
+            SELECT (SELECT COUNT(*) FROM products WHERE image_url = ?)
+                 + (SELECT COUNT(*) FROM categories WHERE image_url = ?)
+            """;
+    private static final String REFERENCED_IMAGES = """
+            SELECT image_url FROM products WHERE image_url LIKE '/images/%'
+            UNION
+            SELECT image_url FROM categories WHERE image_url LIKE '/images/%'
+            """;
+
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration grace;
+    private final Set<String> released = ConcurrentHashMap.newKeySet();
+    private final Counter deletedCounter;
+
+    public ImageCleanupService(FileStorageService fileStorageService,
+                               JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${images.cleanup.grace:1h}") Duration grace) {
+        this.fileStorageService = fileStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.grace = grace;
+        this.deletedCounter = Counter.builder("images.orphans.deleted")
+                .description("Uploads deleted because nothing referenced them")
+                .register(meterRegistry);
+    }
+
+    /** Marks an image URL that a write just stopped using; it is deleted later if nothing else uses it. */
+    public void release(String imageUrl) {
+        if (imageUrl != null && imageUrl.startsWith(FileStorageService.BASE_URL_PATH)) {
+            released.add(imageUrl.substring(FileStorageService.BASE_URL_PATH.length()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${images.cleanup.interval:10m}")
+    public void cleanupReleased() {
+        var deleted = 0;
+        for (var fileName : List.copyOf(released)) {
+            var url = FileStorageService.BASE_URL_PATH + fileName;
+            var references = jdbcTemplate.queryForObject(COUNT_REFERENCES, Long.class, url, url);
+            if (references != null && references > 0) {
+                released.remove(fileName);
+                continue;
+            }
+            try {
+                if (fileStorageService.deleteIfOlderThan(fileName, grace)) {
+                    deleted++;
+                    released.remove(fileName);
+                } else if (!Files.exists(fileStorageService.getUploadPath().resolve(fileName))) {
+                    released.remove(fileName);
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete released image {}", fileName, e);
+            }
+        }
+        record(deleted);
+    }
+
+    @Scheduled(cron = "${images.cleanup.sweep-cron:0 0 4 * * *}")
+    public void sweep() {
+        var uploadPath = fileStorageService.getUploadPath();
+        if (!Files.isDirectory(uploadPath)) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>();
+        jdbcTemplate.query(REFERENCED_IMAGES, resultSet -> {
+            referenced.add(resultSet.getString(1).substring(FileStorageService.BASE_URL_PATH.length()));
+        });
+
+        var cutoff = Instant.now().minus(grace);
+        var deleted = 0;
+        try (var files = Files.newDirectoryStream(uploadPath, Files::isRegularFile)) {
+            for (var file : files) {
+                var name = file.getFileName().toString();
+                if (ImageProcessingService.isOriginal(name)) {
+                    if (!referenced.contains(name) && fileStorageService.deleteIfOlderThan(name, grace)) {
+                        deleted++;
+                    }
+                } else if (name.startsWith(FileStorageService.TEMP_PREFIX)
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Orphaned image sweep of {} did not complete", uploadPath, e);
+        }
+        released.clear();
+        record(deleted);
+    }
+
+    private void record(int deleted) {
+        if (deleted > 0) {
+            deletedCounter.increment(deleted);
+            log.info("Deleted {} orphaned images", deleted);
+        }
+    }
+}
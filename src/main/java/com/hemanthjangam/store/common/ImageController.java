@@ -0,0 +1,39 @@
+package com.hemanthjangam.store.common;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.InputStream;
+
+/**
+ * Standalone image upload for bulk catalog work: the raw request body is streamed straight into
+ * storage and the returned {@code imageUrl} can then be used in product imports or updates.
+ */
+@RestController
+@AllArgsConstructor
+@RequestMapping("/images")
+public class ImageController {
+    private final FileStorageService fileStorageService;
+
+    @PostMapping(consumes = {
+            MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE, "image/webp"})
+    public ResponseEntity<ImageUploadDto> uploadImage(
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            @RequestHeader(value = "Content-Digest", required = false) String contentDigest,
+            InputStream body,
+            UriComponentsBuilder uriBuilder) {
+        var imageUrl = fileStorageService.store(body, contentLength == null ? -1 : contentLength,
+                FileStorageService.sha256FromContentDigest(contentDigest));
+
+        var uri = uriBuilder.path(imageUrl).build().toUri();
+
+        return ResponseEntity.created(uri).body(new ImageUploadDto(imageUrl, ImageVariants.of(imageUrl)));
+    }
+}
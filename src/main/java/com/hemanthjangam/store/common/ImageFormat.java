@@ -0,0 +1,47 @@
+package com.hemanthjangam.store.common;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Image formats accepted for upload, recognised by their leading bytes rather than by the file
+ * name or declared Content-Type. The detected format also picks the stored extension, so an upload
+ * can never be served back as something other than the image it is.
+ */
+public enum ImageFormat {
+    JPEG("jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    PNG("png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+    GIF("gif", new byte[]{'G', 'I', 'F', '8'}),
+    WEBP("webp", new byte[]{'R', 'I', 'F', 'F'});
+
+    /** Enough bytes to tell every format apart (WebP needs its "WEBP" tag at offset 8). */
+    static final int HEADER_LENGTH = 12;
+
+    private final String extension;
+    private final byte[] magic;
+
+    ImageFormat(String extension, byte[] magic) {
+        this.extension = extension;
+        this.magic = magic;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    static Optional<ImageFormat> detect(byte[] header) {
+        for (var format : values()) {
+            if (header.length >= format.magic.length
+                    && Arrays.equals(header, 0, format.magic.length, format.magic, 0, format.magic.length)
+                    && (format != WEBP || isWebp(header))) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isWebp(byte[] header) {
+        return header.length >= HEADER_LENGTH
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P';
+    }
+}
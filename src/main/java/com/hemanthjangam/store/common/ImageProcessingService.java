@@ -0,0 +1,232 @@
+package com.hemanthjangam.store.common;
+
+import com.hemanthjangam.store.config.ImageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the {@link ImageVariant} copies of uploaded images on a small, bounded worker pool so
+ * uploads return as soon as the original is on disk. Each variant is decoded once, downscaled
+ * (never upscaled) and re-encoded as a baseline JPEG; re-encoding drops EXIF/ICC/XMP metadata along
+ * with the bytes it carried. Until a variant exists the image handler falls back to the original, and
+ * uploads that overflow the queue are picked up again by the startup backfill.
+ */
+@Slf4j
+@Service
+public class ImageProcessingService {
+    private final ImageProperties properties;
+    private final Path uploadPath;
+    private final ThreadPoolExecutor executor;
+    private final Timer processingTimer;
+    private final Counter processedCounter;
+    private final Counter failedCounter;
+    private final Counter skippedCounter;
+    private final Counter rejectedCounter;
+
+    public ImageProcessingService(ImageProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${file.upload-dir}") String uploadDir) {
+        this.properties = properties;
+        this.uploadPath = Paths.get(uploadDir);
+
+        var threads = Math.max(1, properties.getProcessing().getThreads());
+        var threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(properties.getProcessing().getQueueCapacity()),
+                runnable -> {
+                    var thread = new Thread(runnable, "image-processor-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.processingTimer = Timer.builder("images.processing")
+                .description("Time to decode an upload and write all of its variants")
+                .register(meterRegistry);
+        this.processedCounter = Counter.builder("images.processed").tag("outcome", "processed").register(meterRegistry);
+        this.failedCounter = Counter.builder("images.processed").tag("outcome", "failed").register(meterRegistry);
+        this.skippedCounter = Counter.builder("images.processed").tag("outcome", "skipped").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("images.processed").tag("outcome", "rejected").register(meterRegistry);
+        Gauge.builder("images.processing.queue", executor, e -> e.getQueue().size())
+                .description("Uploads waiting for a processing thread")
+                .register(meterRegistry);
+    }
+
+    /** Queues {@code original} for processing; returns {@code false} when the queue is full. */
+    public boolean submit(Path original) {
+        try {
+            executor.execute(() -> process(original));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Image processing queue is full; {} will be served unprocessed until the next backfill",
+                    original.getFileName());
+            return false;
+        }
+    }
+
+    /**
+     * Re-queues originals whose variants are missing, e.g. uploads that were still queued when the
+     * application stopped or that were rejected by a full queue.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!Files.isDirectory(uploadPath)) {
+            return;
+        }
+        var queued = 0;
+        try (var files = Files.newDirectoryStream(uploadPath, Files::isRegularFile)) {
+            for (var file : files) {
+                var name = file.getFileName().toString();
+                if (!isOriginal(name) || Files.exists(file.resolveSibling(ImageVariant.DETAIL.fileName(name)))) {
+                    continue;
+                }
+                if (!submit(file)) {
+                    break;
+                }
+                queued++;
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan {} for unprocessed images", uploadPath, e);
+        }
+        if (queued > 0) {
+            log.info("Queued {} unprocessed images for variant generation", queued);
+        }
+    }
+
+    void process(Path original) {
+        processingTimer.record(() -> {
+            try {
+                var image = decode(original);
+                if (image == null) {
+                    skippedCounter.increment();
+                    return;
+                }
+                var fileName = original.getFileName().toString();
+                for (var variant : ImageVariant.values()) {
+                    var scaled = scale(image, properties.widthOf(variant));
+                    write(scaled, original.resolveSibling(variant.fileName(fileName)));
+                }
+                processedCounter.increment();
+            } catch (IOException | RuntimeException e) {
+                failedCounter.increment();
+                log.warn("Failed to generate variants for {}", original.getFileName(), e);
+            }
+        });
+    }
+
+    // Reads the header first so a small file declaring a huge canvas is never decoded.
+    private BufferedImage decode(Path original) throws IOException {
+        try (var input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            var readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                log.debug("{} is not a decodable image; leaving it unprocessed", original.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > properties.getMaxPixels()) {
+                    log.warn("{} is {} pixels, above images.max-pixels; leaving it unprocessed",
+                            original.getFileName(), pixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Downscales to {@code maxWidth} by repeated halving so large reductions keep their detail, and
+     * flattens any transparency onto white since JPEG has no alpha channel.
+     */
+    private static BufferedImage scale(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        var current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+            var next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth);
+        return current;
+    }
+
+    // Written to a temporary sibling and moved into place so the handler never serves a partial file.
+    private void write(BufferedImage image, Path target) throws IOException {
+        var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (var output = ImageIO.createImageOutputStream(temp.toFile())) {
+            var param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getQuality());
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static boolean isVariant(String fileName) {
+        return ImageVariant.FILE_NAME.matcher(fileName).matches();
+    }
+
+    // Temporary files (uploads in flight) are hidden; everything else that is not a variant is an upload.
+    static boolean isOriginal(String fileName) {
+        return !fileName.startsWith(".") && !isVariant(fileName);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,280 @@
+package com.hemanthjangam.store.common;
+
+import com.hemanthjangam.store.config.ImageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Serves {@code /images/**} straight from the upload directory.
+ * <ul>
+ *   <li>Large files go out through the container's sendfile when it supports it (Tomcat NIO does),
+ *   so the bytes never enter the JVM; smaller ones come from the memory-mapped {@link ImageCache}.</li>
+ *   <li>{@code If-None-Match}/{@code If-Modified-Since} answer {@code 304}; a single {@code Range}
+ *   (honouring {@code If-Range}) answers {@code 206}, and multi-range requests get the whole file.</li>
+ *   <li>A {@code .br} or {@code .gz} sibling of a compressible file (SVG, say) is sent instead when the
+ *   client accepts that encoding. Raster formats are already compressed and are never looked up.</li>
+ * </ul>
+ * Upload and variant names are derived from content hashes, so a URL never changes meaning and
+ * responses are cacheable for a year without revalidation. The one exception is a variant that is
+ * still being generated: the original served in its place is marked {@code no-cache} so clients pick
+ * up the real variant once it exists. Misses and rejected requests only set a status (no error
+ * dispatch), which keeps a 404 for a missing image as cheap as a hit.
+ */
+public class ImageResourceHandler implements HttpRequestHandler {
+    static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-]+(\\.[A-Za-z0-9]{1,10})?");
+    private static final Pattern BASE_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final List<String> ENCODINGS = List.of("br", "gzip");
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private final Path directory;
+    private final ImageCache cache;
+    private final long sendfileThreshold;
+    private final Counter cacheBytes;
+    private final Counter sendfileBytes;
+    private final Counter streamBytes;
+
+    public ImageResourceHandler(String directory, ImageCache cache, ImageProperties properties, MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.cache = cache;
+        this.sendfileThreshold = properties.getCache().getSendfileThreshold().toBytes();
+        this.cacheBytes = servedBytes(meterRegistry, "cache");
+        this.sendfileBytes = servedBytes(meterRegistry, "sendfile");
+        this.streamBytes = servedBytes(meterRegistry, "stream");
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        var method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        var fileName = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        var file = directory.resolve(fileName);
+        var fallback = false;
+        if (!Files.isRegularFile(file)) {
+            file = findOriginal(fileName);
+            fallback = true;
+            if (file == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+        }
+
+        var mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        String contentEncoding = null;
+        if (isCompressible(mediaType)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            for (var encoding : ENCODINGS) {
+                var encoded = file.resolveSibling(file.getFileName() + (encoding.equals("br") ? ".br" : ".gz"));
+                if (accepts(request, encoding) && Files.isRegularFile(encoded)) {
+                    file = encoded;
+                    contentEncoding = encoding;
+                    break;
+                }
+            }
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Deleted by the orphan sweep between the lookup and here.
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        var length = attributes.size();
+        var lastModified = attributes.lastModifiedTime().toMillis();
+        // The name is the content hash (or derived from it), so the ETag stays the same when a
+        // re-upload or a new reference touches the file's modification time.
+        var etag = "\"" + file.getFileName() + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                fallback ? CacheControl.noCache().getHeaderValue() : IMMUTABLE.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(mediaType.toString());
+        if (contentEncoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        var range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, etag, lastModified)) {
+            var bounds = parseRange(range, length);
+            if (bounds == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        var count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(method) || count == 0) {
+            return;
+        }
+
+        if (count >= sendfileThreshold && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfileBytes.increment(count);
+        } else if (cache.accepts(length)) {
+            var content = cache.get(file.getFileName().toString(), file, attributes).content();
+            write(content.position((int) start).limit((int) (end + 1)), response);
+            cacheBytes.increment(count);
+        } else {
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var out = Channels.newChannel(response.getOutputStream());
+                var position = start;
+                while (position <= end) {
+                    position += channel.transferTo(position, end + 1 - position, out);
+                }
+            }
+            streamBytes.increment(count);
+        }
+    }
+
+    // A variant that has not been written yet (or never will be, for undecodable uploads) falls back to its original.
+    private Path findOriginal(String fileName) throws IOException {
+        var matcher = ImageVariant.FILE_NAME.matcher(fileName);
+        if (!matcher.matches() || matcher.group(3) != null || !BASE_NAME.matcher(matcher.group(1)).matches()) {
+            return null;
+        }
+        var baseName = matcher.group(1);
+        try (var originals = Files.newDirectoryStream(directory, baseName + ".*")) {
+            for (var original : originals) {
+                if (ImageProcessingService.isOriginal(original.getFileName().toString())) {
+                    return original;
+                }
+            }
+        }
+        var original = directory.resolve(baseName);
+        return Files.isRegularFile(original) ? original : null;
+    }
+
+    /** Returns {@code [start, end]} (inclusive), {@code null} to send the whole file, or {@link #UNSATISFIABLE}. */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        var spec = header.substring("bytes=".length()).trim();
+        var dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                var suffix = Long.parseLong(spec.substring(1));
+                if (suffix == 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+            return start >= length || end < start ? UNSATISFIABLE : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // If-Range carries either the ETag or the Last-Modified date the client's partial copy came from.
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        var ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean accepts(HttpServletRequest request, String encoding) {
+        var header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (var token : header.split(",")) {
+            var parts = token.split(";");
+            if (parts[0].trim().equalsIgnoreCase(encoding)) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCompressible(MediaType mediaType) {
+        return !"image".equals(mediaType.getType()) || mediaType.getSubtype().startsWith("svg");
+    }
+
+    private static void write(ByteBuffer content, HttpServletResponse response) throws IOException {
+        var out = Channels.newChannel(response.getOutputStream());
+        while (content.hasRemaining()) {
+            out.write(content);
+        }
+    }
+
+    private static Counter servedBytes(MeterRegistry meterRegistry, String transfer) {
+        return Counter.builder("images.served.bytes")
+                .baseUnit("bytes")
+                .tag("transfer", transfer)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,9 @@
+package com.hemanthjangam.store.common;
+
+import org.springframework.util.unit.DataSize;
+
+public class ImageTooLargeException extends RuntimeException {
+    public ImageTooLargeException(DataSize maxSize) {
+        super("Images can be at most " + maxSize.toKilobytes() + " KB");
+    }
+}
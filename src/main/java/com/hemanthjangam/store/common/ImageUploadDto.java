@@ -0,0 +1,11 @@
+package com.hemanthjangam.store.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImageUploadDto {
+    private String imageUrl;
+    private ImageVariants images;
+}
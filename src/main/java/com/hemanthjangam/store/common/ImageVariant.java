@@ -0,0 +1,32 @@
+package com.hemanthjangam.store.common;
+
+import java.util.regex.Pattern;
+
+/**
+ * The resized copies generated for every uploaded image. Variants sit next to the original in the
+ * upload directory as {@code <original-name>-<suffix>.jpg}, so their URLs can be derived from the
+ * stored {@code imageUrl} without another column.
+ */
+public enum ImageVariant {
+    THUMBNAIL("thumb"),
+    CARD("card"),
+    DETAIL("detail");
+
+    static final String EXTENSION = ".jpg";
+    static final Pattern FILE_NAME = Pattern.compile("(.+)-(thumb|card|detail)\\.jpg(\\.tmp)?");
+
+    private final String suffix;
+
+    ImageVariant(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String fileName(String originalFileName) {
+        return baseName(originalFileName) + "-" + suffix + EXTENSION;
+    }
+
+    static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hemanthjangam.store.common;
+
+/**
+ * URLs of the resized copies of an image. Locally uploaded images resolve to their generated
+ * variants; hosted URLs (seed data, imports) have no variants, so every size points at the original.
+ */
+public record ImageVariants(String thumbnail, String card, String detail) {
+
+    public static ImageVariants of(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return null;
+        }
+        if (!imageUrl.startsWith(FileStorageService.BASE_URL_PATH)) {
+            return new ImageVariants(imageUrl, imageUrl, imageUrl);
+        }
+        var fileName = imageUrl.substring(FileStorageService.BASE_URL_PATH.length());
+        return new ImageVariants(
+                FileStorageService.BASE_URL_PATH + ImageVariant.THUMBNAIL.fileName(fileName),
+                FileStorageService.BASE_URL_PATH + ImageVariant.CARD.fileName(fileName),
+                FileStorageService.BASE_URL_PATH + ImageVariant.DETAIL.fileName(fileName));
+    }
+}
@@ -0,0 +1,7 @@
+package com.hemanthjangam.store.common;
+
+public class InvalidImageException extends RuntimeException {
+    public InvalidImageException() {
+        super("Only JPEG, PNG, GIF and WebP images can be uploaded");
+    }
+}
@@ -0,0 +1,16 @@
+package com.hemanthjangam.store.common;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Current stock and price values for products a binary stream client has just subscribed to, so
+ * the first frames it receives describe the present rather than waiting for the next change.
+ * Values are in the stream's units: whole items for stock, minor units for prices. Products
+ * without a value (unknown, untracked stock, no price) are simply absent.
+ */
+public interface InventorySnapshotSource {
+    Map<Long, Long> currentStock(Collection<Long> productIds);
+
+    Map<Long, Long> currentPrices(Collection<Long> productIds);
+}
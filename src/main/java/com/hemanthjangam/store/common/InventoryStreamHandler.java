@@ -0,0 +1,248 @@
+package com.hemanthjangam.store.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Raw WebSocket feed of stock and price changes in fixed-width binary frames.
+ *
+ * <p>Client frames: one opcode byte ({@code 1} subscribe, {@code 2} unsubscribe) followed by any
+ * number of big-endian int64 product ids; a single frame may carry up to
+ * {@code websocket.binary.max-subscriptions} of them. Server frames: one kind byte ({@link #STOCK} or {@link #PRICE}, prices in minor units)
+ * followed by (int64 product id, int64 value) pairs. Newly subscribed products are sent their
+ * current values first, read from the {@link InventorySnapshotSource}.
+ *
+ * <p>Each session keeps its own latest-value map per kind. Broadcasts only write into those maps,
+ * and a per-session drain on a virtual thread encodes whatever is pending when it runs, so a client
+ * that reads slowly receives fewer, fresher frames instead of a growing backlog.
+ */
+@Slf4j
+@Component
+public class InventoryStreamHandler extends BinaryWebSocketHandler {
+    public static final byte STOCK = 1;
+    public static final byte PRICE = 2;
+
+    private static final byte SUBSCRIBE = 1;
+    private static final byte UNSUBSCRIBE = 2;
+    private static final int ENTRY_BYTES = 16;
+    private static final int MAX_ENTRIES_PER_FRAME = 4096;
+
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> subscribersByProduct = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final InventorySnapshotSource snapshotSource;
+    private final int maxSubscriptions;
+    private final Counter framesCounter;
+    private final Counter bytesCounter;
+
+    public InventoryStreamHandler(InventorySnapshotSource snapshotSource,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${websocket.binary.max-subscriptions:10000}") int maxSubscriptions) {
+        this.snapshotSource = snapshotSource;
+        this.maxSubscriptions = maxSubscriptions;
+        this.framesCounter = Counter.builder("websocket.binary.frames")
+                .description("Binary inventory frames sent")
+                .register(meterRegistry);
+        this.bytesCounter = Counter.builder("websocket.binary.bytes")
+                .description("Bytes sent on the binary inventory stream")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("websocket.binary.sessions", subscribers, Map::size)
+                .description("Connected binary inventory stream sessions")
+                .register(meterRegistry);
+    }
+
+    public void publish(byte kind, Map<Long, Long> values) {
+        var touched = new HashSet<Subscriber>();
+        values.forEach((productId, value) -> {
+            var interested = subscribersByProduct.get(productId);
+            if (interested != null) {
+                interested.forEach(subscriber -> {
+                    subscriber.put(kind, productId, value);
+                    touched.add(subscriber);
+                });
+            }
+        });
+        touched.forEach(Subscriber::scheduleDrain);
+    }
+
+    // A subscribe frame may carry every id a session is allowed, which is far more than the
+    // container's default binary buffer (8 KB on Tomcat) and would otherwise be closed with 1009.
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.setBinaryMessageSizeLimit(Math.max(session.getBinaryMessageSizeLimit(), 1 + maxSubscriptions * Long.BYTES));
+        subscribers.put(session.getId(), new Subscriber(session));
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        var subscriber = subscribers.get(session.getId());
+        var payload = message.getPayload();
+        if (subscriber == null || payload.remaining() < 1 || (payload.remaining() - 1) % Long.BYTES != 0) {
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+
+        var op = payload.get();
+        var subscribed = new ArrayList<Long>();
+        while (payload.hasRemaining()) {
+            var productId = payload.getLong();
+            if (op == SUBSCRIBE) {
+                if (subscriber.productIds.size() >= maxSubscriptions) {
+                    session.close(CloseStatus.POLICY_VIOLATION.withReason("Too many subscriptions"));
+                    return;
+                }
+                if (subscriber.productIds.add(productId)) {
+                    subscribersByProduct.computeIfAbsent(productId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+                    subscribed.add(productId);
+                }
+            } else if (op == UNSUBSCRIBE) {
+                if (subscriber.productIds.remove(productId)) {
+                    unindex(productId, subscriber);
+                }
+            } else {
+                session.close(CloseStatus.BAD_DATA);
+                return;
+            }
+        }
+        if (!subscribed.isEmpty()) {
+            sender.execute(() -> sendSnapshot(subscriber, subscribed));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        var subscriber = subscribers.remove(session.getId());
+        if (subscriber != null) {
+            subscriber.productIds.forEach(productId -> unindex(productId, subscriber));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+    }
+
+    // Read after the products were indexed, so any change committed since is either in these values
+    // or still to be broadcast; a value a broadcast already queued is at least as new and is kept.
+    private void sendSnapshot(Subscriber subscriber, List<Long> productIds) {
+        try {
+            snapshotSource.currentStock(productIds).forEach((productId, stock) ->
+                    subscriber.putIfAbsent(STOCK, productId, stock));
+            snapshotSource.currentPrices(productIds).forEach((productId, price) ->
+                    subscriber.putIfAbsent(PRICE, productId, price));
+            subscriber.scheduleDrain();
+        } catch (RuntimeException exception) {
+            log.warn("Could not send current values to binary inventory session {}", subscriber.session.getId(), exception);
+        }
+    }
+
+    private void unindex(Long productId, Subscriber subscriber) {
+        subscribersByProduct.computeIfPresent(productId, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+        private final WebSocketSession session;
+        private final Set<Long> productIds = ConcurrentHashMap.newKeySet();
+        private final Map<Long, Long> pendingStock = new ConcurrentHashMap<>();
+        private final Map<Long, Long> pendingPrice = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(WebSocketSession session) {
+            this.session = session;
+        }
+
+        private void put(byte kind, Long productId, Long value) {
+            (kind == STOCK ? pendingStock : pendingPrice).put(productId, value);
+        }
+
+        private void putIfAbsent(byte kind, Long productId, Long value) {
+            if (productIds.contains(productId)) {
+                (kind == STOCK ? pendingStock : pendingPrice).putIfAbsent(productId, value);
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    send(STOCK, pendingStock);
+                    send(PRICE, pendingPrice);
+                } catch (IOException | RuntimeException exception) {
+                    log.debug("Closing binary inventory session {}", session.getId(), exception);
+                    pendingStock.clear();
+                    pendingPrice.clear();
+                    closeQuietly();
+                } finally {
+                    draining.set(false);
+                }
+            } while (hasPending() && session.isOpen() && draining.compareAndSet(false, true));
+        }
+
+        private boolean hasPending() {
+            return !pendingStock.isEmpty() || !pendingPrice.isEmpty();
+        }
+
+        private void send(byte kind, Map<Long, Long> pending) throws IOException {
+            while (!pending.isEmpty() && session.isOpen()) {
+                var buffer = ByteBuffer.allocate(1 + Math.min(pending.size(), MAX_ENTRIES_PER_FRAME) * ENTRY_BYTES);
+                buffer.put(kind);
+                for (var productId : pending.keySet()) {
+                    if (buffer.remaining() < ENTRY_BYTES) {
+                        break;
+                    }
+                    var value = pending.remove(productId);
+                    if (value != null) {
+                        buffer.putLong(productId).putLong(value);
+                    }
+                }
+                if (buffer.position() == 1) {
+                    return;
+                }
+
+                buffer.flip();
+                var size = buffer.remaining();
+                session.sendMessage(new BinaryMessage(buffer, true));
+                framesCounter.increment();
+                bytesCounter.increment(size);
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // The connection is already gone.
+            }
+        }
+    }
+}
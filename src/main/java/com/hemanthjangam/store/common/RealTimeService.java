@@ -1,21 +1,159 @@
 package com.hemanthjangam.store.common;
 
+import com.hemanthjangam.store.products.CatalogSnapshotChangedEvent;
 import com.hemanthjangam.store.products.StockUpdateDto;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflates stock updates before they reach subscribers. Callers only drop the latest level for a
+ * product into a map, so publishing never blocks the thread that changed stock; a dedicated thread
+ * drains the map every flush interval and sends one message per changed product to
+ * {@code /topic/inventory/{productId}} plus one batch for the whole window to {@code /topic/inventory}.
+ * A product that changes a thousand times inside one window costs its subscribers a single message.
+ * Each window's stock and price changes are also handed to the binary {@link InventoryStreamHandler}.
+ */
+@Slf4j
 @Service
-@AllArgsConstructor
 public class RealTimeService {
+    private static final String TOPIC = "/topic/inventory";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final InventoryStreamHandler inventoryStream;
+    private final ConcurrentHashMap<Long, Integer> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> pendingPrices = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Counter publishedCounter;
+    private final Counter conflatedCounter;
+    private final Counter droppedCounter;
+
+    public RealTimeService(SimpMessagingTemplate messagingTemplate,
+                           InventoryStreamHandler inventoryStream,
+                           MeterRegistry meterRegistry,
+                           @Value("${realtime.stock.flush-interval:100ms}") Duration flushInterval) {
+        this.messagingTemplate = messagingTemplate;
+        this.inventoryStream = inventoryStream;
+        this.publishedCounter = Counter.builder("realtime.stock.messages")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.conflatedCounter = Counter.builder("realtime.stock.messages")
+                .tag("outcome", "conflated")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("realtime.stock.messages")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+        Gauge.builder("realtime.stock.pending", pending, ConcurrentHashMap::size)
+                .description("Products with a stock update waiting for the next flush")
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "stock-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
 
     public void publishStockUpdate(Long productId, Integer newStock) {
-        String topic = "/topic/inventory/" + productId;
+        if (pending.put(productId, newStock) != null) {
+            conflatedCounter.increment();
+        }
+    }
+
+    // Prices only go to the binary stream; STOMP subscribers already get them from the catalog.
+    public void publishPriceUpdate(Long productId, BigDecimal price) {
+        if (pendingPrices.put(productId, price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()) != null) {
+            conflatedCounter.increment();
+        }
+    }
+
+    // Follows the catalog snapshot rather than local writes, so price changes made on other nodes
+    // reach this node's subscribers too.
+    @EventListener
+    public void onSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        for (var productId : event.productIds()) {
+            event.snapshot().findProduct(productId)
+                    .filter(product -> product.getPrice() != null)
+                    .ifPresent(product -> publishPriceUpdate(productId, product.getPrice()));
+        }
+    }
 
-        StockUpdateDto update = new StockUpdateDto(productId, newStock);
+    void flush() {
+        try {
+            flushPrices();
+            flushStock();
+        } catch (RuntimeException exception) {
+            log.warn("Stock broadcast flush failed", exception);
+        }
+    }
+
+    private void flushStock() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        var batch = new ArrayList<StockUpdateDto>(pending.size());
+        var values = new HashMap<Long, Long>();
+        for (var productId : pending.keySet()) {
+            var stock = pending.remove(productId);
+            if (stock != null) {
+                batch.add(new StockUpdateDto(productId, stock));
+                values.put(productId, stock.longValue());
+            }
+        }
+
+        for (var update : batch) {
+            send(TOPIC + "/" + update.getProductId(), update, 1);
+        }
+        send(TOPIC, batch, batch.size());
+        inventoryStream.publish(InventoryStreamHandler.STOCK, values);
+    }
+
+    private void flushPrices() {
+        if (pendingPrices.isEmpty()) {
+            return;
+        }
+
+        var values = new HashMap<Long, Long>();
+        for (var productId : pendingPrices.keySet()) {
+            var price = pendingPrices.remove(productId);
+            if (price != null) {
+                values.put(productId, price);
+            }
+        }
+        inventoryStream.publish(InventoryStreamHandler.PRICE, values);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+    }
 
-        messagingTemplate.convertAndSend(topic, update);
-        System.out.printf("Published real-time stock update for Product %d: New Stock=%d%n", productId, newStock);
+    private void send(String destination, Object payload, int updates) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
+            publishedCounter.increment();
+        } catch (RuntimeException exception) {
+            droppedCounter.increment(updates);
+            log.warn("Dropped stock update for {}", destination, exception);
+        }
     }
-}
\ No newline at end of file
+}
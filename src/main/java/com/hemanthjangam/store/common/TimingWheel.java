@@ -0,0 +1,123 @@
+package com.hemanthjangam.store.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel keyed by an id. Each level has 64 slots and each slot on level
+ * {@code n} spans 64^n ticks; timers start on the coarsest level that covers their delay and
+ * cascade down as the wheel turns. Scheduling and cancelling are O(1), and advancing the wheel only
+ * touches the slots it passes. Deadlines past the last level's span are parked there and placed
+ * again when the slot cascades.
+ */
+public class TimingWheel<K> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final List<List<Set<Timer<K>>>> wheels = new ArrayList<>(LEVELS);
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+
+        for (int level = 0; level < LEVELS; level++) {
+            var slots = new ArrayList<Set<Timer<K>>>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+
+        var timer = new Timer<>(key, Math.ceilDiv(deadlineMillis, tickMillis));
+        timers.put(key, timer);
+        place(timer, currentTick + 1);
+    }
+
+    public synchronized boolean cancel(K key) {
+        var timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot.remove(timer);
+        return true;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * Turns the wheel up to {@code nowMillis} and returns the keys whose deadline has passed.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        var targetTick = nowMillis / tickMillis;
+        var expired = new ArrayList<K>();
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+
+            var slot = wheels.get(0).get((int) (currentTick & (SLOTS - 1)));
+            for (var timer : slot) {
+                timers.remove(timer.key);
+                expired.add(timer.key);
+            }
+            slot.clear();
+        }
+
+        return expired;
+    }
+
+    private void cascade(int level) {
+        var slot = wheels.get(level).get((int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+        var pending = new ArrayList<>(slot);
+        slot.clear();
+        // A timer due on this very tick lands in the level 0 slot that advance() empties next.
+        pending.forEach(timer -> place(timer, currentTick));
+    }
+
+    private void place(Timer<K> timer, long earliestTick) {
+        if (timer.tick < earliestTick) {
+            timer.tick = earliestTick;
+        }
+
+        var delta = timer.tick - currentTick;
+        var tick = delta < SPAN ? timer.tick : currentTick + SPAN - 1;
+        var level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        timer.slot = wheels.get(level).get((int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+        timer.slot.add(timer);
+    }
+
+    private static final class Timer<K> {
+        private final K key;
+        private long tick;
+        private Set<Timer<K>> slot;
+
+        private Timer(K key, long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.hemanthjangam.store.config;
+
+import com.hemanthjangam.store.common.ImageVariant;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@ConfigurationProperties(prefix = "images")
+@Data
+public class ImageProperties {
+    private int thumbnailWidth = 160;
+    private int cardWidth = 480;
+    private int detailWidth = 1200;
+    private float quality = 0.82f;
+    /** Uploads larger than this are left as-is instead of being decoded into memory. */
+    private long maxPixels = 40_000_000L;
+    private Processing processing = new Processing();
+    private Cache cache = new Cache();
+    private Upload upload = new Upload();
+
+    public int widthOf(ImageVariant variant) {
+        return switch (variant) {
+            case THUMBNAIL -> thumbnailWidth;
+            case CARD -> cardWidth;
+            case DETAIL -> detailWidth;
+        };
+    }
+
+    @Data
+    public static class Processing {
+        private int threads = 2;
+        private int queueCapacity = 200;
+    }
+
+    @Data
+    public static class Cache {
+        /** Total size of the memory-mapped files kept open for serving. */
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+        /** Larger files are never mapped; they go out through sendfile or a channel transfer. */
+        private DataSize maxFileSize = DataSize.ofMegabytes(2);
+        /** Files at least this large are handed to the container's sendfile when it offers one. */
+        private DataSize sendfileThreshold = DataSize.ofKilobytes(48);
+    }
+
+    @Data
+    public static class Upload {
+        /** Checked against Content-Length up front and against the bytes actually read while streaming. */
+        private DataSize maxSize = DataSize.ofMegabytes(5);
+    }
+}
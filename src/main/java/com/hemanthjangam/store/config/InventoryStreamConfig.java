@@ -0,0 +1,24 @@
+package com.hemanthjangam.store.config;
+
+import com.hemanthjangam.store.common.InventoryStreamHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Plain WebSocket endpoint, without SockJS or STOMP framing, for the binary inventory stream.
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class InventoryStreamConfig implements WebSocketConfigurer {
+    private final InventoryStreamHandler inventoryStreamHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(inventoryStreamHandler, "/stream/inventory")
+                .setAllowedOriginPatterns("*");
+    }
+}
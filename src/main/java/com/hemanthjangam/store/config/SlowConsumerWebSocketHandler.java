@@ -0,0 +1,30 @@
+package com.hemanthjangam.store.config;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Applies the configured overflow strategy to each session's send buffer. The stock handler always
+ * disconnects a session whose buffer overflows; dropping the oldest queued messages keeps a lagging
+ * browser connected and still lets it catch up with the latest state.
+ */
+class SlowConsumerWebSocketHandler extends SubProtocolWebSocketHandler {
+    private final OverflowStrategy overflowStrategy;
+
+    SlowConsumerWebSocketHandler(MessageChannel clientInboundChannel,
+                                 SubscribableChannel clientOutboundChannel,
+                                 OverflowStrategy overflowStrategy) {
+        super(clientInboundChannel, clientOutboundChannel);
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    @Override
+    protected WebSocketSession decorateSession(WebSocketSession session) {
+        return new ConcurrentWebSocketSessionDecorator(
+                session, getSendTimeLimit(), getSendBufferSizeLimit(), overflowStrategy);
+    }
+}
@@ -1,22 +1,50 @@
 package com.hemanthjangam.store.config;
 
 import com.hemanthjangam.store.common.FileStorageService;
+import com.hemanthjangam.store.common.ImageCache;
+import com.hemanthjangam.store.common.ImageResourceHandler;
+import com.hemanthjangam.store.products.CatalogCacheInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 
-import java.io.File;
+import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final CatalogCacheInterceptor catalogCacheInterceptor;
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    @Bean
+    public ImageResourceHandler imageResourceHandler(ImageCache imageCache,
+                                                     ImageProperties imageProperties,
+                                                     MeterRegistry meterRegistry) {
+        return new ImageResourceHandler(uploadDir, imageCache, imageProperties, meterRegistry);
+    }
+
+    // Ordered just ahead of the default resource mapping, after every controller mapping.
+    @Bean
+    public SimpleUrlHandlerMapping imageHandlerMapping(ImageResourceHandler imageResourceHandler) {
+        var mapping = new SimpleUrlHandlerMapping(Map.of(FileStorageService.BASE_URL_PATH + "**", imageResourceHandler));
+        mapping.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+        return mapping;
+    }
+
+    // Stock is not part of the catalog snapshot, so its version says nothing about stock freshness.
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler(FileStorageService.BASE_URL_PATH + "**")
-                .addResourceLocations("file:" + uploadDir + File.separator);
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogCacheInterceptor)
+                .addPathPatterns("/products", "/products/**", "/categories", "/categories/**")
+                .excludePathPatterns("/products/export", "/products/import", "/products/changes", "/products/*/stock");
     }
 }
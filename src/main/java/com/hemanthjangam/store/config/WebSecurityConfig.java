@@ -10,7 +10,7 @@ import org.springframework.stereotype.Component;
 public class WebSecurityConfig implements SecurityRules {
     @Override
     public void configure(AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry registry) {
-        registry.requestMatchers("/ws/**").permitAll();
+        registry.requestMatchers("/ws/**", "/stream/**").permitAll();
 
         registry.requestMatchers(HttpMethod.GET, "/images/**").permitAll();
     }
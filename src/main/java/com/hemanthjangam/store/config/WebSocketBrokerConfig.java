@@ -0,0 +1,27 @@
+package com.hemanthjangam.store.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+
+/**
+ * Equivalent of {@code @EnableWebSocketMessageBroker} that swaps in {@link SlowConsumerWebSocketHandler}
+ * so the slow-consumer policy applies to every STOMP session. Broker and endpoint settings stay in
+ * {@link WebSocketConfig}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+    private final WebSocketProperties properties;
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        return new SlowConsumerWebSocketHandler(clientInboundChannel, clientOutboundChannel,
+                properties.getSlowConsumerPolicy().getOverflowStrategy());
+    }
+}
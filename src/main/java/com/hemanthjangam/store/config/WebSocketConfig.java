@@ -1,20 +1,28 @@
 package com.hemanthjangam.store.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
-@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketProperties properties;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic");
 
         config.setApplicationDestinationPrefixes("/app");
+
+        // Virtual threads give no ordering between tasks, so keep each session's messages in order.
+        config.setPreservePublishOrder(properties.getOutbound().isVirtualThreads());
     }
 
     @Override
@@ -22,5 +30,37 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+
+        registry.setPreserveReceiveOrder(properties.getInbound().isVirtualThreads());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(properties.getSendBufferSizeLimit())
+                .setSendTimeLimit((int) properties.getSendTimeLimit().toMillis())
+                .setMessageSizeLimit(properties.getMessageSizeLimit())
+                .setTimeToFirstMessage((int) properties.getTimeToFirstMessage().toMillis());
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        configureChannel(registration, properties.getInbound(), "ws-inbound-");
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureChannel(registration, properties.getOutbound(), "ws-outbound-");
+    }
+
+    private void configureChannel(ChannelRegistration registration, WebSocketProperties.Channel channel, String threadPrefix) {
+        if (channel.isVirtualThreads()) {
+            registration.executor(new VirtualThreadTaskExecutor(threadPrefix));
+            return;
+        }
+
+        registration.taskExecutor()
+                .corePoolSize(channel.getCorePoolSize())
+                .maxPoolSize(channel.getMaxPoolSize())
+                .queueCapacity(channel.getQueueCapacity());
     }
-}
\ No newline at end of file
+}
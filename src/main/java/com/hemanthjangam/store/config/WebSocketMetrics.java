@@ -0,0 +1,131 @@
+package com.hemanthjangam.store.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Gauges for connected STOMP sessions, live subscriptions per topic and the depth of the inbound and
+ * outbound channel queues, plus a counter of sessions closed for falling behind. Numeric path
+ * segments are folded into {@code {id}} so {@code /topic/inventory/42} and
+ * {@code /topic/inventory/43} share one series. Only the topics the server publishes to get their
+ * own series; every other destination a client subscribes to is tagged {@code other}, so clients
+ * cannot grow the registry.
+ */
+@Component
+public class WebSocketMetrics {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Set<String> KNOWN_TOPICS = Set.of(
+            "/topic/inventory", "/topic/inventory/{id}", "/topic/catalog/changes");
+    private static final String OTHER_TOPIC = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Map<String, Map<String, String>> subscriptionsBySession = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> subscriptionsByTopic = new ConcurrentHashMap<>();
+    private final Counter slowConsumerDisconnects;
+
+    public WebSocketMetrics(MeterRegistry meterRegistry,
+                            @Qualifier("clientInboundChannelExecutor") Executor inboundExecutor,
+                            @Qualifier("clientOutboundChannelExecutor") Executor outboundExecutor) {
+        this.meterRegistry = meterRegistry;
+        this.slowConsumerDisconnects = Counter.builder("websocket.sessions.slow.consumer.closed")
+                .description("Sessions closed because they could not keep up with outbound messages")
+                .register(meterRegistry);
+
+        Gauge.builder("websocket.sessions", sessions, AtomicInteger::get)
+                .description("Connected STOMP sessions")
+                .register(meterRegistry);
+        registerQueueGauge("inbound", inboundExecutor);
+        registerQueueGauge("outbound", outboundExecutor);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        sessions.incrementAndGet();
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        var subscriptions = subscriptionsBySession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(topic -> topicCounter(topic).decrementAndGet());
+        }
+        if (CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+            slowConsumerDisconnects.increment();
+        }
+        sessions.decrementAndGet();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        var accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null || accessor.getDestination() == null) {
+            return;
+        }
+
+        var topic = ID_SEGMENT.matcher(accessor.getDestination()).replaceAll("/{id}");
+        if (!KNOWN_TOPICS.contains(topic)) {
+            topic = OTHER_TOPIC;
+        }
+        var previous = subscriptionsBySession
+                .computeIfAbsent(accessor.getSessionId(), key -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), topic);
+        if (previous != null) {
+            topicCounter(previous).decrementAndGet();
+        }
+        topicCounter(topic).incrementAndGet();
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        var accessor = StompHeaderAccessor.wrap(event.getMessage());
+        var subscriptions = accessor.getSessionId() == null ? null : subscriptionsBySession.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        var topic = subscriptions.remove(accessor.getSubscriptionId());
+        if (topic != null) {
+            topicCounter(topic).decrementAndGet();
+        }
+    }
+
+    private AtomicInteger topicCounter(String topic) {
+        return subscriptionsByTopic.computeIfAbsent(topic, key -> {
+            var counter = new AtomicInteger();
+            Gauge.builder("websocket.subscriptions", counter, AtomicInteger::get)
+                    .description("Live STOMP subscriptions per topic")
+                    .tag("topic", key)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    // Virtual-thread executors hand every task its own thread and have no queue to measure.
+    private void registerQueueGauge(String channel, Executor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor taskExecutor) {
+            Gauge.builder("websocket.channel.queue", taskExecutor, e -> e.getThreadPoolExecutor().getQueue().size())
+                    .description("Messages waiting for a channel thread")
+                    .tag("channel", channel)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.hemanthjangam.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "websocket")
+@Data
+public class WebSocketProperties {
+    private int sendBufferSizeLimit = 512 * 1024;
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+    private int messageSizeLimit = 64 * 1024;
+    private Duration timeToFirstMessage = Duration.ofSeconds(30);
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+    private Channel inbound = new Channel();
+    private Channel outbound = new Channel();
+
+    @Data
+    public static class Channel {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int queueCapacity = 10_000;
+        private boolean virtualThreads = false;
+    }
+
+    /**
+     * What happens when a session's send buffer outgrows {@link #sendBufferSizeLimit}. A session that
+     * is stuck in a single send for longer than {@link #sendTimeLimit} is always disconnected.
+     */
+    public enum SlowConsumerPolicy {
+        DROP_OLDEST(OverflowStrategy.DROP),
+        DISCONNECT(OverflowStrategy.TERMINATE);
+
+        private final OverflowStrategy overflowStrategy;
+
+        SlowConsumerPolicy(OverflowStrategy overflowStrategy) {
+            this.overflowStrategy = overflowStrategy;
+        }
+
+        public OverflowStrategy getOverflowStrategy() {
+            return overflowStrategy;
+        }
+    }
+}
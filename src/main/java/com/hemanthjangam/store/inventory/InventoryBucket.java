@@ -0,0 +1,26 @@
+package com.hemanthjangam.store.inventory;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One slice of a product's stock. A product's available quantity is the sum of its buckets, and
+ * checkouts decrement a single bucket, so concurrent buyers of the same product contend on
+ * different rows instead of queueing on one.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "inventory_buckets")
+public class InventoryBucket {
+    @EmbeddedId
+    private InventoryBucketId id;
+
+    @Column(name = "quantity")
+    private Integer quantity;
+}
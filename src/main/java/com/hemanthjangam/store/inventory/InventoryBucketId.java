@@ -0,0 +1,26 @@
+package com.hemanthjangam.store.inventory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class InventoryBucketId implements Serializable {
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "bucket")
+    private Byte bucket;
+}
@@ -0,0 +1,48 @@
+package com.hemanthjangam.store.inventory;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryBucketRepository extends JpaRepository<InventoryBucket, InventoryBucketId> {
+    List<InventoryBucket> findByIdProductIdOrderByIdBucket(Long productId);
+
+    @Query("SELECT SUM(b.quantity) FROM InventoryBucket b WHERE b.id.productId = :productId")
+    Integer sumQuantity(@Param("productId") Long productId);
+
+    @Query("SELECT b.id.productId AS productId, SUM(b.quantity) AS quantity FROM InventoryBucket b " +
+            "WHERE b.id.productId IN :productIds GROUP BY b.id.productId")
+    List<StockLevel> sumQuantities(@Param("productIds") Collection<Long> productIds);
+
+    // Conditional decrement: the row only changes when it still holds enough stock, so two
+    // checkouts can never both take the last unit.
+    @Modifying
+    @Query("UPDATE InventoryBucket b SET b.quantity = b.quantity - :quantity " +
+            "WHERE b.id.productId = :productId AND b.id.bucket = :bucket AND b.quantity >= :quantity")
+    int decrement(@Param("productId") Long productId, @Param("bucket") Byte bucket, @Param("quantity") int quantity);
+
+    // Locks the bucket row and returns its current quantity. The low-stock drain locks buckets in
+    // ascending order through this, so two orders for the same product cannot deadlock.
+    @Query(value = "SELECT quantity FROM inventory_buckets WHERE product_id = :productId AND bucket = :bucket FOR UPDATE",
+            nativeQuery = true)
+    Integer lockQuantity(@Param("productId") Long productId, @Param("bucket") Byte bucket);
+
+    @Modifying
+    @Query("UPDATE InventoryBucket b SET b.quantity = b.quantity + :quantity " +
+            "WHERE b.id.productId = :productId AND b.id.bucket = :bucket")
+    int increment(@Param("productId") Long productId, @Param("bucket") Byte bucket, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("DELETE FROM InventoryBucket b WHERE b.id.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    interface StockLevel {
+        Long getProductId();
+
+        Long getQuantity();
+    }
+}
@@ -0,0 +1,29 @@
+package com.hemanthjangam.store.inventory;
+
+import com.hemanthjangam.store.products.StockUpdateDto;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/products/{productId}/stock")
+public class InventoryController {
+    private final InventoryService inventoryService;
+
+    @GetMapping
+    public ResponseEntity<StockUpdateDto> getStock(@PathVariable Long productId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(inventoryService.getStock(productId));
+    }
+
+    @PutMapping
+    public StockUpdateDto setStock(
+            @PathVariable Long productId,
+            @Valid @RequestBody UpdateStockRequest request) {
+        return inventoryService.setStock(productId, request.getStock());
+    }
+}
@@ -0,0 +1,37 @@
+package com.hemanthjangam.store.inventory;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "inventory_reservations")
+public class InventoryReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "bucket")
+    private Byte bucket;
+
+    @Column(name = "quantity")
+    private Integer quantity;
+
+    public InventoryReservation(Long orderId, Long productId, Byte bucket, Integer quantity) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.bucket = bucket;
+        this.quantity = quantity;
+    }
+}
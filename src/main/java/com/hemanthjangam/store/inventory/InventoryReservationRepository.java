@@ -0,0 +1,16 @@
+package com.hemanthjangam.store.inventory;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long> {
+    List<InventoryReservation> findByOrderId(Long orderId);
+
+    @Modifying
+    @Query("DELETE FROM InventoryReservation r WHERE r.id = :id")
+    int deleteReservation(@Param("id") Long id);
+}
@@ -0,0 +1,153 @@
+package com.hemanthjangam.store.inventory;
+
+import com.hemanthjangam.store.orders.Order;
+import com.hemanthjangam.store.products.ProductNotFoundException;
+import com.hemanthjangam.store.products.ProductRepository;
+import com.hemanthjangam.store.products.StockUpdateDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock is split across a fixed number of bucket rows per product. A reservation starts at a
+ * random bucket and takes the whole quantity from the first one that can cover it, falling back to
+ * draining several buckets, in bucket order, only when stock runs low. Every decrement is a
+ * conditional UPDATE, so there is no read-modify-write window, and any shortfall throws and rolls
+ * the checkout back.
+ * Products without bucket rows are untracked and never run out.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class InventoryService {
+    private final InventoryBucketRepository bucketRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.buckets:8}")
+    private int bucketCount;
+
+    // Bucket numbers are stored as TINYINT.
+    @PostConstruct
+    void validateBucketCount() {
+        if (bucketCount < 1 || bucketCount > Byte.MAX_VALUE) {
+            throw new IllegalStateException("inventory.buckets must be between 1 and " + Byte.MAX_VALUE + ", was " + bucketCount);
+        }
+    }
+
+    public StockUpdateDto getStock(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException();
+        }
+        return new StockUpdateDto(productId, bucketRepository.sumQuantity(productId));
+    }
+
+    @Transactional
+    public StockUpdateDto setStock(Long productId, int stock) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException();
+        }
+
+        bucketRepository.deleteByProductId(productId);
+
+        var buckets = new ArrayList<InventoryBucket>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            var quantity = stock / bucketCount + (bucket < stock % bucketCount ? 1 : 0);
+            buckets.add(new InventoryBucket(new InventoryBucketId(productId, (byte) bucket), quantity));
+        }
+        bucketRepository.saveAll(buckets);
+
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(productId)));
+        return new StockUpdateDto(productId, stock);
+    }
+
+    @Transactional
+    public void reserve(Order order) {
+        // Walk products in id order so two orders sharing products lock bucket rows in the same order.
+        var quantities = new TreeMap<Long, Integer>();
+        order.getItems().forEach(item ->
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+
+        var changed = new HashSet<Long>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (reserve(order.getId(), entry.getKey(), entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(changed));
+        }
+    }
+
+    @Transactional
+    public void release(Long orderId) {
+        var changed = new HashSet<Long>();
+
+        for (var reservation : reservationRepository.findByOrderId(orderId)) {
+            // Only the caller that deletes the reservation puts its stock back, so a redelivered
+            // webhook cannot release the same units twice.
+            if (reservationRepository.deleteReservation(reservation.getId()) == 1) {
+                bucketRepository.increment(reservation.getProductId(), reservation.getBucket(), reservation.getQuantity());
+                changed.add(reservation.getProductId());
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(changed));
+        }
+    }
+
+    private boolean reserve(Long orderId, Long productId, int quantity) {
+        var buckets = bucketRepository.findByIdProductIdOrderByIdBucket(productId);
+        if (buckets.isEmpty()) {
+            return false;
+        }
+
+        var start = ThreadLocalRandom.current().nextInt(buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            var bucket = buckets.get((start + i) % buckets.size());
+            if (bucket.getQuantity() >= quantity && take(orderId, bucket, quantity)) {
+                return true;
+            }
+        }
+
+        // Draining locks each bucket in ascending order and re-reads it under the lock: the quantities
+        // loaded above may already be stale, and the conditional decrement would fail on them.
+        var remaining = quantity;
+        for (int i = 0; i < buckets.size() && remaining > 0; i++) {
+            var bucket = buckets.get(i);
+            var available = bucketRepository.lockQuantity(productId, bucket.getId().getBucket());
+            var amount = available == null ? 0 : Math.min(remaining, available);
+            if (amount > 0 && take(orderId, bucket, amount)) {
+                remaining -= amount;
+            }
+        }
+
+        if (remaining > 0) {
+            throw new OutOfStockException(productId);
+        }
+        return true;
+    }
+
+    private boolean take(Long orderId, InventoryBucket bucket, int quantity) {
+        var id = bucket.getId();
+        if (bucketRepository.decrement(id.getProductId(), id.getBucket(), quantity) == 0) {
+            return false;
+        }
+
+        reservationRepository.save(new InventoryReservation(orderId, id.getProductId(), id.getBucket(), quantity));
+        return true;
+    }
+}
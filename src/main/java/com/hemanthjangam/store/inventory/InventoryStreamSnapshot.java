@@ -0,0 +1,49 @@
+package com.hemanthjangam.store.inventory;
+
+import com.hemanthjangam.store.common.InventorySnapshotSource;
+import com.hemanthjangam.store.products.CatalogSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stock comes from the bucket rows, summed per product in chunks of {@value #CHUNK_SIZE} ids;
+ * prices come from the catalog snapshot without a query.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryStreamSnapshot implements InventorySnapshotSource {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final InventoryBucketRepository bucketRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Override
+    public Map<Long, Long> currentStock(Collection<Long> productIds) {
+        var ids = new ArrayList<>(productIds);
+        var stock = new HashMap<Long, Long>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            bucketRepository.sumQuantities(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))
+                    .forEach(level -> stock.put(level.getProductId(), level.getQuantity()));
+        }
+        return stock;
+    }
+
+    @Override
+    public Map<Long, Long> currentPrices(Collection<Long> productIds) {
+        var snapshot = catalogSnapshotService.current();
+        var prices = new HashMap<Long, Long>();
+        for (var productId : productIds) {
+            snapshot.findProduct(productId)
+                    .filter(product -> product.getPrice() != null)
+                    .ifPresent(product -> prices.put(productId,
+                            product.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()));
+        }
+        return prices;
+    }
+}
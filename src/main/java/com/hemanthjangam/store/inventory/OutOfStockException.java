@@ -0,0 +1,7 @@
+package com.hemanthjangam.store.inventory;
+
+public class OutOfStockException extends RuntimeException {
+    public OutOfStockException(Long productId) {
+        super("Product " + productId + " is out of stock");
+    }
+}
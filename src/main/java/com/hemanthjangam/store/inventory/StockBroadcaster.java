@@ -0,0 +1,27 @@
+package com.hemanthjangam.store.inventory;
+
+import com.hemanthjangam.store.common.RealTimeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Pushes the committed stock level of every product touched by a transaction to
+ * {@code /topic/inventory/{productId}}. Rolled-back checkouts publish nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockBroadcaster {
+    private final InventoryBucketRepository bucketRepository;
+    private final RealTimeService realTimeService;
+
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        event.productIds().forEach(productId -> {
+            var stock = bucketRepository.sumQuantity(productId);
+            if (stock != null) {
+                realTimeService.publishStockUpdate(productId, stock);
+            }
+        });
+    }
+}
@@ -0,0 +1,6 @@
+package com.hemanthjangam.store.inventory;
+
+import java.util.Set;
+
+public record StockChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,12 @@
+package com.hemanthjangam.store.inventory;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class UpdateStockRequest {
+    @NotNull(message = "Stock must be provided")
+    @Min(value = 0, message = "Stock must not be negative")
+    private Integer stock;
+}
@@ -1,32 +1,95 @@
 package com.hemanthjangam.store.payments;
 
 import com.hemanthjangam.store.orders.Order;
+import com.hemanthjangam.store.carts.CartConflictException;
 import com.hemanthjangam.store.carts.CartEmptyException;
 import com.hemanthjangam.store.carts.CartNotFoundException;
 import com.hemanthjangam.store.carts.CartRepository;
 import com.hemanthjangam.store.orders.OrderRepository;
 import com.hemanthjangam.store.auth.AuthService;
 import com.hemanthjangam.store.carts.CartService;
+import com.hemanthjangam.store.inventory.InventoryService;
+import com.hemanthjangam.store.inventory.OutOfStockException;
+import com.hemanthjangam.store.orders.PaymentStatus;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class CheckoutService {
+    private static final int PLACE_ORDER_ATTEMPTS = 3;
+
     private final CartRepository cartRepository;
     private final OrderRepository orderRepository;
     private final CartService cartService;
     private final AuthService authService;
     private final PaymentGateway paymentGateway;
+    private final InventoryService inventoryService;
+    private final PendingOrderExpiryService pendingOrderExpiryService;
+    private final TransactionTemplate transactionTemplate;
 
 
-    @Transactional
+    /**
+     * Places the order and reserves its stock in one short transaction, then creates the payment
+     * session outside it, so the inventory bucket row locks are never held across the call to the
+     * payment provider. If the session cannot be created the reservation is released and the order
+     * removed; the expiry timer scheduled with the order covers a crash in between.
+     */
     public CheckoutResponse checkout(@Valid CheckoutRequest request) {
-        var cart = cartRepository.getCartWithItems(request.getCartId())
+        cartService.flushCart(request.getCartId());
+        var order = placeOrder(request.getCartId());
+        pendingOrderExpiryService.schedule(order.getId());
+
+        CheckoutSession session;
+        try {
+            session = paymentGateway.createCheckoutSession(order);
+        }
+        catch (PaymentException exception) {
+            log.warn("Checkout session creation failed for order {}", order.getId(), exception);
+            pendingOrderExpiryService.cancel(order.getId());
+            transactionTemplate.executeWithoutResult(status -> {
+                inventoryService.release(order.getId());
+                orderRepository.deleteById(order.getId());
+            });
+            throw exception;
+        }
+
+        try {
+            cartService.clearCart(request.getCartId());
+        }
+        catch (CartConflictException exception) {
+            // The order is placed either way; a concurrent edit just means the cart keeps its items.
+            log.warn("Cart {} changed during checkout of order {} and was not cleared", request.getCartId(), order.getId());
+        }
+
+        return new CheckoutResponse(order.getId(), session.getCheckoutUrl());
+    }
+
+    // The random single-bucket attempts of a reservation can leave a bucket row locked out of order
+    // with a concurrent low-stock drain; the database then aborts one of the two, which is retried.
+    private Order placeOrder(UUID cartId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> createOrder(cartId));
+            }
+            catch (PessimisticLockingFailureException exception) {
+                if (attempt == PLACE_ORDER_ATTEMPTS) {
+                    throw exception;
+                }
+                log.debug("Lock conflict placing an order for cart {}, retrying", cartId);
+            }
+        }
+    }
+
+    private Order createOrder(UUID cartId) {
+        var cart = cartRepository.getCartWithItems(cartId)
                 .orElseThrow(CartNotFoundException::new);
 
         if (cart.isEmpty()) {
@@ -36,28 +99,49 @@ public class CheckoutService {
         var order = Order.fromCart(cart, authService.getCurrentUser());
 
         orderRepository.save(order);
+        inventoryService.reserve(order);
 
-        try {
-            var session = paymentGateway.createCheckoutSession(order);
-
-            cartService.clearCart(cart.getId());
-
-            return new CheckoutResponse(order.getId(), session.getCheckoutUrl());
-        }
-        catch (PaymentException exception) {
-            log.warn("Checkout session creation failed for order {}", order.getId(), exception);
-            orderRepository.delete(order);
-            throw exception;
-        }
+        return order;
     }
 
     public void handleWebhookEvent(WebhookRequest request) {
         paymentGateway
                 .parseWebhookRequest(request)
                 .ifPresent(paymentResult -> {
-                    var order = orderRepository.findById(paymentResult.getOrderId()).orElseThrow();
-                    order.setStatus(paymentResult.getPaymentStatus());
-                    orderRepository.save(order);
+                    var previousStatus = transactionTemplate.execute(status -> applyPaymentResult(paymentResult));
+                    // Only once the new status is committed; a rolled-back webhook must leave the
+                    // order's expiry timer in place.
+                    pendingOrderExpiryService.cancel(paymentResult.getOrderId());
+                    if (previousStatus == PaymentStatus.CANCELED && paymentResult.getPaymentStatus() == PaymentStatus.PAID) {
+                        reserveAgain(paymentResult.getOrderId());
+                    }
                 });
     }
+
+    private PaymentStatus applyPaymentResult(PaymentResult paymentResult) {
+        var order = orderRepository.findById(paymentResult.getOrderId()).orElseThrow();
+        var previousStatus = order.getStatus();
+        order.setStatus(paymentResult.getPaymentStatus());
+        orderRepository.save(order);
+
+        if (paymentResult.getPaymentStatus() == PaymentStatus.FAILED
+                || paymentResult.getPaymentStatus() == PaymentStatus.CANCELED) {
+            inventoryService.release(order.getId());
+        }
+        return previousStatus;
+    }
+
+    // The order expired and gave its stock back, but the customer paid just before the session
+    // closed. The payment is recorded first; the stock is then taken again in its own transaction.
+    private void reserveAgain(Long orderId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    inventoryService.reserve(orderRepository.findById(orderId).orElseThrow()));
+            log.warn("Order {} was paid after it expired; its stock was reserved again", orderId);
+        }
+        catch (OutOfStockException exception) {
+            log.error("Order {} was paid after it expired but could not be reserved again ({}); the payment needs a refund",
+                    orderId, exception.getMessage());
+        }
+    }
 }
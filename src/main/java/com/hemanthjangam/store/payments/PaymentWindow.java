@@ -0,0 +1,31 @@
+package com.hemanthjangam.store.payments;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * How long a pending order can be paid for: {@code orders.pending.ttl}, clamped to the checkout
+ * session lifetimes Stripe accepts (30 minutes to 24 hours). The session expiry and the pending-order
+ * expiry both read it, so an order is never canceled while its session can still be paid.
+ */
+@Slf4j
+@Getter
+@Component
+public class PaymentWindow {
+    private static final Duration MIN_TTL = Duration.ofMinutes(30);
+    private static final Duration MAX_TTL = Duration.ofHours(24);
+
+    private final Duration ttl;
+
+    public PaymentWindow(@Value("${orders.pending.ttl:30m}") Duration configured) {
+        this.ttl = configured.compareTo(MIN_TTL) < 0 ? MIN_TTL
+                : configured.compareTo(MAX_TTL) > 0 ? MAX_TTL : configured;
+        if (!ttl.equals(configured)) {
+            log.warn("orders.pending.ttl {} is outside the checkout session limits; using {}", configured, ttl);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.hemanthjangam.store.payments;
+
+import com.hemanthjangam.store.common.TimingWheel;
+import com.hemanthjangam.store.inventory.InventoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cancels orders that stay {@code PENDING} past their payment window. Every pending order holds a
+ * timer in a {@link TimingWheel}; settling webhooks cancel it, and expired orders are flipped to
+ * {@code CANCELED} in JDBC batches guarded by {@code status = 'PENDING'}, so an order paid in the
+ * meantime is left alone. Reserved stock is released for every order actually canceled. Timers are
+ * rebuilt from the {@code orders} table on startup; there is no periodic scan.
+ */
+@Slf4j
+@Service
+public class PendingOrderExpiryService {
+    private static final String CANCEL_SQL = "UPDATE orders SET status = 'CANCELED' WHERE id = ? AND status = 'PENDING'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryService inventoryService;
+    private final Duration pendingTtl;
+    private final Duration grace;
+    private final int batchSize;
+    private final TimingWheel<Long> wheel;
+    private final Counter expiredCounter;
+
+    public PendingOrderExpiryService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     InventoryService inventoryService,
+                                     MeterRegistry meterRegistry,
+                                     PaymentWindow paymentWindow,
+                                     @Value("${orders.pending.grace:2m}") Duration grace,
+                                     @Value("${orders.pending.tick:1s}") Duration tick,
+                                     @Value("${orders.pending.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryService = inventoryService;
+        this.pendingTtl = paymentWindow.getTtl();
+        this.grace = grace;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tick.toMillis(), System.currentTimeMillis());
+        this.expiredCounter = Counter.builder("orders.pending.expired")
+                .description("Pending orders canceled after their payment window")
+                .register(meterRegistry);
+        Gauge.builder("orders.pending.timers", wheel, TimingWheel::size)
+                .description("Pending orders waiting for payment or expiry")
+                .register(meterRegistry);
+    }
+
+    public void schedule(Long orderId) {
+        wheel.schedule(orderId, System.currentTimeMillis() + expiresAfter());
+    }
+
+    public void cancel(Long orderId) {
+        wheel.cancel(orderId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        var now = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT id, created_at FROM orders WHERE status = 'PENDING'", resultSet -> {
+            var createdAt = resultSet.getTimestamp("created_at");
+            var created = createdAt == null ? now : createdAt.getTime();
+            wheel.schedule(resultSet.getLong("id"), created + expiresAfter());
+        });
+        log.info("Scheduled expiry for {} pending orders", wheel.size());
+    }
+
+    @Scheduled(fixedDelayString = "${orders.pending.tick:1s}")
+    public void expire() {
+        var expired = wheel.advance(System.currentTimeMillis());
+
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            cancelOrders(expired.subList(from, Math.min(from + batchSize, expired.size())));
+        }
+    }
+
+    // The checkout session closes after the payment window; the grace period lets a payment completed at the
+    // last moment reach us through its webhook before the order is canceled.
+    private long expiresAfter() {
+        return pendingTtl.plus(grace).toMillis();
+    }
+
+    private void cancelOrders(List<Long> orderIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            var results = jdbcTemplate.batchUpdate(CANCEL_SQL, orderIds, orderIds.size(),
+                    (statement, orderId) -> statement.setLong(1, orderId));
+
+            var canceled = new ArrayList<Long>();
+            for (int i = 0; i < orderIds.size(); i++) {
+                if (results[0][i] == Statement.SUCCESS_NO_INFO) {
+                    canceled = findCanceled(orderIds);
+                    break;
+                }
+                if (results[0][i] > 0) {
+                    canceled.add(orderIds.get(i));
+                }
+            }
+
+            canceled.forEach(inventoryService::release);
+            expiredCounter.increment(canceled.size());
+            if (!canceled.isEmpty()) {
+                log.info("Canceled {} pending orders past their payment window", canceled.size());
+            }
+        });
+    }
+
+    // Drivers may report SUCCESS_NO_INFO for batched statements. Releasing stock is idempotent per
+    // order, so falling back to the canceled subset is safe.
+    private ArrayList<Long> findCanceled(List<Long> orderIds) {
+        var placeholders = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+        return new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE status = 'CANCELED' AND id IN (" + placeholders + ")",
+                Long.class, orderIds.toArray()));
+    }
+}
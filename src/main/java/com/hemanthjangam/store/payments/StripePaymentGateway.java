@@ -10,16 +10,21 @@ import com.stripe.model.PaymentIntent;
 import com.stripe.model.checkout.Session;
 import com.stripe.net.Webhook;
 import com.stripe.param.checkout.SessionCreateParams;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Optional;
 
 @Slf4j
+@RequiredArgsConstructor
 @Service
 public class StripePaymentGateway implements PaymentGateway{
+    private final PaymentWindow paymentWindow;
+
     @Value("${websiteUrl}")
     private String websiteUrl;
 
@@ -33,6 +38,7 @@ public class StripePaymentGateway implements PaymentGateway{
                     .setMode(SessionCreateParams.Mode.PAYMENT)
                     .setSuccessUrl(websiteUrl + "/checkout-success?orderId=" + order.getId())
                     .setCancelUrl(websiteUrl + "/checkout-cancel")
+                    .setExpiresAt(sessionExpiry())
                     .putMetadata("order_id", order.getId().toString());
 
             order.getItems().forEach(item -> {
@@ -86,6 +92,10 @@ public class StripePaymentGateway implements PaymentGateway{
         return Long.valueOf(paymentIntent.getMetadata().get("order_id"));
     }
 
+    private long sessionExpiry() {
+        return Instant.now().plus(paymentWindow.getTtl()).getEpochSecond();
+    }
+
     private SessionCreateParams.LineItem createLineItem(OrderItem item) {
         return SessionCreateParams.LineItem.builder()
                 .setQuantity(Long.valueOf(item.getQuantity()))
@@ -0,0 +1,102 @@
+package com.hemanthjangam.store.products;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.time.Duration;
+
+/**
+ * Answers conditional catalog GETs before the controller runs. The ETag is the catalog change log
+ * version the snapshot has applied, which moves on every product or category write and is the same
+ * on every node that has caught up with it, so a matching {@code If-None-Match} gets a 304 without
+ * touching the database or serializing a body, whichever node it reaches.
+ *
+ * <p>The ETag and {@code Cache-Control} headers are only added to successful responses, once the
+ * body is about to be written; errors such as a 404 are not cached.
+ */
+@ControllerAdvice
+public class CatalogCacheInterceptor implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+    private static final String ETAG_ATTRIBUTE = CatalogCacheInterceptor.class.getName() + ".etag";
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final String cacheControl;
+
+    public CatalogCacheInterceptor(CatalogSnapshotService catalogSnapshotService,
+                                   @Value("${catalog.cache.max-age:60s}") Duration maxAge,
+                                   @Value("${catalog.cache.stale-while-revalidate:300s}") Duration staleWhileRevalidate) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.cacheControl = CacheControl.maxAge(maxAge)
+                .cachePublic()
+                .staleWhileRevalidate(staleWhileRevalidate)
+                .getHeaderValue();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        // Taken before the controller reads the catalog, so the body is never older than its ETag.
+        var etag = "\"" + catalogSnapshotService.getContentVersion() + "\"";
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse
+                && servletRequest.getServletRequest().getAttribute(ETAG_ATTRIBUTE) instanceof String etag
+                && servletResponse.getServletResponse().getStatus() / 100 == 2) {
+            response.getHeaders().set(HttpHeaders.ETAG, etag);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        return body;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        for (var candidate : ifNoneMatch.split(",")) {
+            var value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
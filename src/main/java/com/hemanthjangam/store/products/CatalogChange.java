@@ -0,0 +1,46 @@
+package com.hemanthjangam.store.products;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the catalog change log. The auto-increment {@code version} is the catalog version
+ * clients sync from; rows only name what changed, and the current state is read when a feed page
+ * is served.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "catalog_changes")
+public class CatalogChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "entity_type")
+    @Enumerated(EnumType.STRING)
+    private CatalogEntityType entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "operation")
+    @Enumerated(EnumType.STRING)
+    private CatalogChangeOperation operation;
+
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt;
+
+    public CatalogChange(CatalogEntityType entityType, Long entityId, CatalogChangeOperation operation) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.changedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,6 @@
+package com.hemanthjangam.store.products;
+
+public enum CatalogChangeOperation {
+    UPSERT,
+    DELETE
+}
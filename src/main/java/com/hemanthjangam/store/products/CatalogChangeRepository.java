@@ -0,0 +1,34 @@
+package com.hemanthjangam.store.products;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+    List<CatalogChange> findByVersionGreaterThanOrderByVersion(Long version, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM CatalogChange c")
+    long findLatestVersion();
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM CatalogChange c WHERE c.changedAt < :before")
+    long findLatestVersionBefore(@Param("before") LocalDateTime before);
+
+    // Rows already superseded by a later change to the same entity; only the latest row per entity
+    // is needed to bring any client up to date.
+    @Query("SELECT c.version FROM CatalogChange c WHERE c.changedAt < :before AND EXISTS (" +
+            "SELECT 1 FROM CatalogChange n WHERE n.entityType = c.entityType " +
+            "AND n.entityId = c.entityId AND n.version > c.version)")
+    List<Long> findSupersededVersions(@Param("before") LocalDateTime before, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CatalogChange c WHERE c.version IN :versions")
+    int deleteByVersionIn(@Param("versions") Collection<Long> versions);
+}
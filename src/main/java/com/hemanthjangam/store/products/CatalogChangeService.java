@@ -0,0 +1,166 @@
+package com.hemanthjangam.store.products;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog change log behind {@code GET /products/changes}. Every product and category write is
+ * stamped with the next log version inside its own transaction, and the feed returns the current
+ * state of whatever changed after a client's version, collapsed to one entry per entity.
+ *
+ * <p>Auto-increment versions are handed out before commit, so a slower transaction can commit a
+ * lower version after a higher one is already visible. A page therefore stops at a hole in the
+ * sequence until the row after it is older than the settle window, by which point the hole is a
+ * rollback or a compacted row rather than a pending commit.
+ */
+@Slf4j
+@Service
+public class CatalogChangeService {
+    static final String TOPIC = "/topic/catalog/changes";
+
+    private static final String RECORD_IMPORTED_SQL =
+            "INSERT INTO catalog_changes (entity_type, entity_id, operation, changed_at) VALUES ('PRODUCT', ?, 'UPSERT', ?)";
+
+    private final CatalogChangeRepository changeRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final CategoryRegistry categoryRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxPageSize;
+    private final Duration settle;
+    private final Duration compactAfter;
+
+    public CatalogChangeService(CatalogChangeRepository changeRepository,
+                                ProductRepository productRepository,
+                                ProductMapper productMapper,
+                                CategoryRegistry categoryRegistry,
+                                JdbcTemplate jdbcTemplate,
+                                SimpMessagingTemplate messagingTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${catalog.changes.max-page-size:500}") int maxPageSize,
+                                @Value("${catalog.changes.settle:5s}") Duration settle,
+                                @Value("${catalog.changes.compact-after:1h}") Duration compactAfter) {
+        this.changeRepository = changeRepository;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.categoryRegistry = categoryRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxPageSize = maxPageSize;
+        this.settle = settle;
+        this.compactAfter = compactAfter;
+    }
+
+    @Transactional(readOnly = true)
+    public CatalogChangesDto getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+
+        var size = Math.max(1, Math.min(limit, maxPageSize));
+        var rows = changeRepository.findByVersionGreaterThanOrderByVersion(since, Limit.of(size + 1));
+        var settledBefore = LocalDateTime.now().minus(settle);
+
+        var version = since;
+        var hasMore = rows.size() > size;
+        var latest = new LinkedHashMap<Map.Entry<CatalogEntityType, Long>, CatalogChangeOperation>();
+        for (var row : rows.subList(0, Math.min(size, rows.size()))) {
+            if (row.getVersion() != version + 1 && row.getChangedAt().isAfter(settledBefore)) {
+                hasMore = true;
+                break;
+            }
+            latest.put(Map.entry(row.getEntityType(), row.getEntityId()), row.getOperation());
+            version = row.getVersion();
+        }
+
+        var upsertedProducts = new ArrayList<Long>();
+        var deletedProducts = new ArrayList<Long>();
+        var categories = new ArrayList<CategoryDto>();
+        latest.forEach((entity, operation) -> {
+            if (entity.getKey() == CatalogEntityType.CATEGORY) {
+                categoryRegistry.find(entity.getValue().byteValue())
+                        .map(productMapper::toCategoryDto)
+                        .ifPresent(categories::add);
+            } else if (operation == CatalogChangeOperation.DELETE) {
+                deletedProducts.add(entity.getValue());
+            } else {
+                upsertedProducts.add(entity.getValue());
+            }
+        });
+
+        // A product missing here was deleted by a change that a later page will report.
+        List<ProductDto> products = upsertedProducts.isEmpty() ? List.of()
+                : productRepository.findByIdIn(upsertedProducts).stream().map(productMapper::toDto).toList();
+
+        return new CatalogChangesDto(version, hasMore, products, deletedProducts, categories);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        record(CatalogEntityType.PRODUCT, event.productId(),
+                event.isDeleted() ? CatalogChangeOperation.DELETE : CatalogChangeOperation.UPSERT);
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        record(CatalogEntityType.CATEGORY, event.categoryId().longValue(), CatalogChangeOperation.UPSERT);
+    }
+
+    /**
+     * Logs the given products as upserted. Bulk imports insert over JDBC and call this with the
+     * generated ids in the same transaction as each batch.
+     */
+    public void recordImported(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        var changedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(RECORD_IMPORTED_SQL, productIds, productIds.size(), (statement, productId) -> {
+            statement.setLong(1, productId);
+            statement.setTimestamp(2, changedAt);
+        });
+        eventPublisher.publishEvent(new CatalogVersionEvent(changeRepository.findLatestVersion()));
+    }
+
+    @TransactionalEventListener
+    public void broadcast(CatalogVersionEvent event) {
+        messagingTemplate.convertAndSend(TOPIC, event);
+    }
+
+    @Scheduled(cron = "${catalog.changes.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        var before = LocalDateTime.now().minus(compactAfter);
+        var removed = 0;
+
+        List<Long> versions;
+        while (!(versions = changeRepository.findSupersededVersions(before, Limit.of(1000))).isEmpty()) {
+            removed += changeRepository.deleteByVersionIn(versions);
+        }
+        log.info("Compacted {} superseded catalog changes", removed);
+    }
+
+    private void record(CatalogEntityType entityType, Long entityId, CatalogChangeOperation operation) {
+        var change = changeRepository.save(new CatalogChange(entityType, entityId, operation));
+        eventPublisher.publishEvent(new CatalogVersionEvent(change.getVersion()));
+    }
+}
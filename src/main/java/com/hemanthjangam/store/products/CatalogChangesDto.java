@@ -0,0 +1,16 @@
+package com.hemanthjangam.store.products;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CatalogChangesDto {
+    private long version;
+    private boolean hasMore;
+    private List<ProductDto> products;
+    private List<Long> deletedProducts;
+    private List<CategoryDto> categories;
+}
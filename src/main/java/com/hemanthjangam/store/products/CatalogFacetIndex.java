@@ -0,0 +1,230 @@
+package com.hemanthjangam.store.products;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Columnar view of the catalog snapshot used for faceted filtering. Prices are held as minor units in
+ * a {@code long[]} and category ids in a {@code byte[]}, with one {@link BitSet} per category, so a
+ * filter request is a handful of bitwise operations and array scans instead of GROUP BY queries.
+ * The columns are rebuilt lazily whenever the snapshot version moves on.
+ */
+@Component
+public class CatalogFacetIndex {
+    private static final BigDecimal MAX_BOUND = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+    private static final BigDecimal MIN_BOUND = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductSearchIndex productSearchIndex;
+
+    private volatile Columns columns;
+
+    public CatalogFacetIndex(CatalogSnapshotService catalogSnapshotService, ProductSearchIndex productSearchIndex) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    public ProductFacetsDto filter(ProductFilter filter, int limit, int bucketCount) {
+        var snapshot = catalogSnapshotService.current();
+        var current = columns(snapshot);
+
+        var textMask = current.all();
+        if (filter.hasQuery()) {
+            textMask = current.positionsOf(productSearchIndex.matching(filter.query()));
+        }
+
+        var priceMask = current.priceBetween(filter.minPrice(), filter.maxPrice());
+        var categoryMask = filter.hasCategories() ? current.categories(filter) : current.all();
+
+        // Each facet is counted with every filter applied except its own, so the sidebar
+        // keeps showing the alternatives a shopper can switch to.
+        var withoutCategory = and(textMask, priceMask);
+        var withoutPrice = and(textMask, categoryMask);
+        var matches = and(withoutCategory, categoryMask);
+
+        var items = new ArrayList<ProductDto>(Math.min(limit, matches.cardinality()));
+        for (int i = matches.nextSetBit(0); i >= 0 && items.size() < limit; i = matches.nextSetBit(i + 1)) {
+            snapshot.findProduct(current.ids[i]).ifPresent(items::add);
+        }
+
+        return new ProductFacetsDto(
+                items,
+                matches.cardinality(),
+                current.categoryCounts(withoutCategory),
+                current.priceHistogram(withoutPrice, bucketCount));
+    }
+
+    private Columns columns(CatalogSnapshot snapshot) {
+        var current = columns;
+        if (current != null && current.version == snapshot.getVersion()) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (columns == null || columns.version != snapshot.getVersion()) {
+                columns = Columns.of(snapshot);
+            }
+            return columns;
+        }
+    }
+
+    private static BitSet and(BitSet left, BitSet right) {
+        var result = (BitSet) left.clone();
+        result.and(right);
+        return result;
+    }
+
+    private static long toMinorUnits(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Query bounds are client input; one beyond the range of a long already admits or excludes every
+    // price, so it is clamped rather than converted. A bound between two cents is rounded inwards,
+    // CEILING for a minimum and FLOOR for a maximum, so it never admits a price outside the range.
+    private static long toMinorBound(BigDecimal bound, RoundingMode rounding) {
+        if (bound.compareTo(MAX_BOUND) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (bound.compareTo(MIN_BOUND) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return bound.setScale(2, rounding).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    private static final class Columns {
+        private final long version;
+        private final long[] ids;
+        private final long[] prices;
+        private final byte[] categoryIds;
+        private final Map<Byte, BitSet> categoryBits;
+        private final Map<Long, Integer> positions;
+
+        private Columns(long version, long[] ids, long[] prices, byte[] categoryIds,
+                        Map<Byte, BitSet> categoryBits, Map<Long, Integer> positions) {
+            this.version = version;
+            this.ids = ids;
+            this.prices = prices;
+            this.categoryIds = categoryIds;
+            this.categoryBits = categoryBits;
+            this.positions = positions;
+        }
+
+        static Columns of(CatalogSnapshot snapshot) {
+            var products = snapshot.getProducts();
+            var ids = new long[products.size()];
+            var prices = new long[products.size()];
+            var categoryIds = new byte[products.size()];
+            var categoryBits = new HashMap<Byte, BitSet>();
+            var positions = new HashMap<Long, Integer>(products.size() * 2);
+
+            for (int i = 0; i < products.size(); i++) {
+                var product = products.get(i);
+                ids[i] = product.getId();
+                prices[i] = toMinorUnits(product.getPrice());
+                positions.put(product.getId(), i);
+
+                if (product.getCategoryId() != null) {
+                    categoryIds[i] = product.getCategoryId();
+                    categoryBits.computeIfAbsent(product.getCategoryId(), id -> new BitSet(products.size())).set(i);
+                }
+            }
+
+            return new Columns(snapshot.getVersion(), ids, prices, categoryIds, categoryBits, positions);
+        }
+
+        BitSet all() {
+            var bits = new BitSet(ids.length);
+            bits.set(0, ids.length);
+            return bits;
+        }
+
+        BitSet positionsOf(Iterable<Long> productIds) {
+            var bits = new BitSet(ids.length);
+            for (var id : productIds) {
+                var position = positions.get(id);
+                if (position != null) {
+                    bits.set(position);
+                }
+            }
+            return bits;
+        }
+
+        BitSet categories(ProductFilter filter) {
+            var bits = new BitSet(ids.length);
+            filter.categoryIds().forEach(id -> {
+                var categoryMask = categoryBits.get(id);
+                if (categoryMask != null) {
+                    bits.or(categoryMask);
+                }
+            });
+            return bits;
+        }
+
+        BitSet priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+            if (minPrice == null && maxPrice == null) {
+                return all();
+            }
+
+            long min = minPrice == null ? Long.MIN_VALUE : toMinorBound(minPrice, RoundingMode.CEILING);
+            long max = maxPrice == null ? Long.MAX_VALUE : toMinorBound(maxPrice, RoundingMode.FLOOR);
+            var bits = new BitSet(ids.length);
+            for (int i = 0; i < prices.length; i++) {
+                if (prices[i] >= min && prices[i] <= max) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        Map<Byte, Integer> categoryCounts(BitSet mask) {
+            var tally = new int[256];
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                tally[categoryIds[i] & 0xFF]++;
+            }
+
+            var counts = new TreeMap<Byte, Integer>();
+            categoryBits.keySet().forEach(id -> counts.put(id, tally[id & 0xFF]));
+            return counts;
+        }
+
+        List<PriceBucketDto> priceHistogram(BitSet mask, int bucketCount) {
+            if (mask.isEmpty() || bucketCount <= 0) {
+                return List.of();
+            }
+
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                min = Math.min(min, prices[i]);
+                max = Math.max(max, prices[i]);
+            }
+
+            long width = Math.max(1, (max - min + bucketCount) / bucketCount);
+            int buckets = (int) Math.min(bucketCount, (max - min) / width + 1);
+            var counts = new int[buckets];
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                counts[(int) Math.min(buckets - 1, (prices[i] - min) / width)]++;
+            }
+
+            var histogram = new ArrayList<PriceBucketDto>(buckets);
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                long from = min + bucket * width;
+                long to = bucket == buckets - 1 ? max : from + width - 1;
+                histogram.add(new PriceBucketDto(fromMinorUnits(from), fromMinorUnits(to), counts[bucket]));
+            }
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.hemanthjangam.store.products;
+
+/**
+ * Published after bulk writes that bypass {@link ProductService}, telling in-memory read models
+ * to reload from the database instead of applying individual changes.
+ */
+public record CatalogReloadedEvent() {
+}
@@ -0,0 +1,149 @@
+package com.hemanthjangam.store.products;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, versioned view of the catalog. Every change produces a new instance, so readers
+ * never need a lock: they grab the current reference and work off it.
+ */
+public final class CatalogSnapshot {
+    private static final Comparator<ProductDto> BY_ID = Comparator.comparing(ProductDto::getId);
+
+    private final long version;
+    private final Map<Long, ProductDto> productsById;
+    private final Map<Byte, List<ProductDto>> productsByCategory;
+    private final List<ProductDto> products;
+
+    private CatalogSnapshot(long version,
+                            Map<Long, ProductDto> productsById,
+                            Map<Byte, List<ProductDto>> productsByCategory,
+                            List<ProductDto> products) {
+        this.version = version;
+        this.productsById = productsById;
+        this.productsByCategory = productsByCategory;
+        this.products = products;
+    }
+
+    public static CatalogSnapshot build(long version, Collection<Byte> categoryIds, Collection<ProductDto> products) {
+        var byId = new HashMap<Long, ProductDto>(products.size() * 2);
+        var byCategory = new HashMap<Byte, List<ProductDto>>();
+        categoryIds.forEach(id -> byCategory.put(id, new ArrayList<>()));
+
+        for (var product : products) {
+            byId.put(product.getId(), product);
+            if (product.getCategoryId() != null) {
+                byCategory.computeIfAbsent(product.getCategoryId(), id -> new ArrayList<>()).add(product);
+            }
+        }
+
+        byCategory.replaceAll((id, list) -> sorted(list));
+
+        return new CatalogSnapshot(version, Map.copyOf(byId), Map.copyOf(byCategory), sorted(byId.values()));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ProductDto> getProducts() {
+        return products;
+    }
+
+    public List<ProductDto> getProducts(Byte categoryId) {
+        return productsByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    public Optional<ProductDto> findProduct(Long id) {
+        return Optional.ofNullable(productsById.get(id));
+    }
+
+    public int size() {
+        return productsById.size();
+    }
+
+    public CatalogSnapshot withProduct(ProductDto product) {
+        return withChanges(List.of(product), List.of());
+    }
+
+    public CatalogSnapshot withoutProduct(Long productId) {
+        return withChanges(List.of(), List.of(productId));
+    }
+
+    /**
+     * Applies a set of upserted and deleted products in one pass. The id-sorted lists are patched
+     * with a linear merge of the sorted changes, and only the categories the changes touch are
+     * rebuilt, so a write costs a copy of the catalog but never a sort of it.
+     */
+    public CatalogSnapshot withChanges(Collection<ProductDto> upserted, Collection<Long> deleted) {
+        var changed = new HashSet<Long>(deleted);
+        var touchedCategories = new HashSet<Byte>();
+        var byId = new HashMap<>(productsById);
+        for (var productId : deleted) {
+            var previous = byId.remove(productId);
+            if (previous != null && previous.getCategoryId() != null) {
+                touchedCategories.add(previous.getCategoryId());
+            }
+        }
+        for (var product : upserted) {
+            changed.add(product.getId());
+            var previous = byId.put(product.getId(), product);
+            if (previous != null && previous.getCategoryId() != null) {
+                touchedCategories.add(previous.getCategoryId());
+            }
+            if (product.getCategoryId() != null) {
+                touchedCategories.add(product.getCategoryId());
+            }
+        }
+        if (changed.isEmpty()) {
+            return this;
+        }
+
+        var added = sorted(upserted.stream().filter(product -> byId.get(product.getId()) == product).toList());
+        var byCategory = new HashMap<>(productsByCategory);
+        for (var categoryId : touchedCategories) {
+            var addedToCategory = added.stream().filter(product -> categoryId.equals(product.getCategoryId())).toList();
+            byCategory.put(categoryId, merge(byCategory.getOrDefault(categoryId, List.of()), changed, addedToCategory));
+        }
+
+        return new CatalogSnapshot(version + 1, Map.copyOf(byId), Map.copyOf(byCategory), merge(products, changed, added));
+    }
+
+    public CatalogSnapshot withCategory(Byte categoryId) {
+        var byCategory = new HashMap<>(productsByCategory);
+        byCategory.putIfAbsent(categoryId, List.of());
+
+        return new CatalogSnapshot(version + 1, productsById, Map.copyOf(byCategory), products);
+    }
+
+    private static List<ProductDto> sorted(Collection<ProductDto> products) {
+        var list = new ArrayList<>(products);
+        list.sort(BY_ID);
+        return List.copyOf(list);
+    }
+
+    // Both lists are sorted by id; entries of removed products are dropped from the first.
+    private static List<ProductDto> merge(List<ProductDto> products, Set<Long> removed, List<ProductDto> added) {
+        var merged = new ArrayList<ProductDto>(products.size() + added.size());
+        var next = 0;
+        for (var product : products) {
+            while (next < added.size() && added.get(next).getId() < product.getId()) {
+                merged.add(added.get(next++));
+            }
+            if (!removed.contains(product.getId())) {
+                merged.add(product);
+            }
+        }
+        while (next < added.size()) {
+            merged.add(added.get(next++));
+        }
+        return List.copyOf(merged);
+    }
+}
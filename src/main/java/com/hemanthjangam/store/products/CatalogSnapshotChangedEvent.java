@@ -0,0 +1,11 @@
+package com.hemanthjangam.store.products;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link CatalogSnapshotService} after it applies product changes to the snapshot,
+ * whether they were written on this node or picked up from {@code catalog_changes}. A product
+ * still in {@code snapshot} was created or updated; one missing from it was deleted.
+ */
+public record CatalogSnapshotChangedEvent(CatalogSnapshot snapshot, Collection<Long> productIds) {
+}
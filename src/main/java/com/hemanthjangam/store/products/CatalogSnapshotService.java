@@ -0,0 +1,240 @@
+package com.hemanthjangam.store.products;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the read-optimized {@link CatalogSnapshot} that the product read endpoints are served from.
+ * The snapshot is loaded once and then follows {@code catalog_changes}: every refresh interval the
+ * changes past the last applied version are read and their rows re-read from the database, so writes
+ * made on other nodes reach this one too. A write made here is applied as soon as it commits, by
+ * re-reading its row as well. Rows are only ever read and applied under this service's lock, so a
+ * slow commit listener cannot put back an older copy of a product.
+ *
+ * <p>Like the change feed, the refresh stops at a hole in the version sequence until the row after
+ * it is older than {@code catalog.changes.settle}.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+    private static final int REFRESH_PAGE_SIZE = 500;
+    private static final String INSTANCE = UUID.randomUUID().toString().substring(0, 8);
+
+    private final ProductRepository productRepository;
+    private final CatalogChangeRepository changeRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration settle;
+    private final Timer rebuildTimer;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    // Last catalog_changes version reflected in the snapshot; guarded by this.
+    private long appliedVersion;
+    // Whether the snapshot holds rows newer than appliedVersion, read by a rebuild or after a local
+    // write; guarded by this.
+    private boolean ahead;
+    private volatile String contentVersion = "0";
+
+    public CatalogSnapshotService(ProductRepository productRepository,
+                                  CatalogChangeRepository changeRepository,
+                                  CategoryRegistry categoryRegistry,
+                                  ProductMapper productMapper,
+                                  ApplicationEventPublisher eventPublisher,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${catalog.changes.settle:5s}") Duration settle) {
+        this.productRepository = productRepository;
+        this.changeRepository = changeRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.productMapper = productMapper;
+        this.eventPublisher = eventPublisher;
+        // Commit listeners still have the writing transaction's persistence context bound, which
+        // would hand back that transaction's copy of a product instead of the committed row.
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.settle = settle;
+        this.rebuildTimer = Timer.builder("catalog.snapshot.rebuild")
+                .description("Time taken to rebuild the catalog snapshot from the database")
+                .register(meterRegistry);
+
+        Gauge.builder("catalog.snapshot.version", snapshot, ref -> ref.get() == null ? 0 : ref.get().getVersion())
+                .description("Version of the catalog snapshot currently served")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.products", snapshot, ref -> ref.get() == null ? 0 : ref.get().size())
+                .description("Number of products in the catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    public CatalogSnapshot current() {
+        var current = snapshot.get();
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Names the catalog this node serves. Every node that has applied the same change log version
+     * serves the same catalog and reports the same value. While this node serves writes the change
+     * log refresh has not caught up with yet, the value is scoped to this node's snapshot instead.
+     */
+    public String getContentVersion() {
+        current();
+        return contentVersion;
+    }
+
+    // Runs ahead of the search and suggestion indexes, which are built from the snapshot.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener({ApplicationReadyEvent.class, CatalogReloadedEvent.class})
+    public synchronized CatalogSnapshot rebuild() {
+        // Changes inside the settle window may still be joined by lower versions, so the refresh
+        // goes over them again; re-applying a change is harmless.
+        var version = changeRepository.findLatestVersionBefore(LocalDateTime.now().minus(settle));
+        var rebuilt = rebuildTimer.record(() -> {
+            var categoryIds = categoryRegistry.getCategories().stream()
+                    .map(Category::getId)
+                    .toList();
+            var products = productRepository.findAllWithCategory().stream()
+                    .map(productMapper::toDto)
+                    .toList();
+
+            var previous = snapshot.get();
+            return CatalogSnapshot.build(previous == null ? 1 : previous.getVersion() + 1, categoryIds, products);
+        });
+
+        snapshot.set(rebuilt);
+        appliedVersion = version;
+        ahead = true;
+        updateContentVersion();
+        log.info("Catalog snapshot v{} rebuilt with {} products", rebuilt.getVersion(), rebuilt.size());
+        return rebuilt;
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval:1s}")
+    public synchronized void refresh() {
+        if (snapshot.get() == null) {
+            return;
+        }
+
+        var settledBefore = LocalDateTime.now().minus(settle);
+        while (true) {
+            var rows = changeRepository.findByVersionGreaterThanOrderByVersion(appliedVersion, Limit.of(REFRESH_PAGE_SIZE));
+            var productIds = new LinkedHashSet<Long>();
+            var categoryIds = new LinkedHashSet<Byte>();
+            var version = appliedVersion;
+            var blocked = false;
+            for (var row : rows) {
+                if (row.getVersion() != version + 1 && row.getChangedAt().isAfter(settledBefore)) {
+                    blocked = true;
+                    break;
+                }
+                if (row.getEntityType() == CatalogEntityType.CATEGORY) {
+                    categoryIds.add(row.getEntityId().byteValue());
+                } else {
+                    productIds.add(row.getEntityId());
+                }
+                version = row.getVersion();
+            }
+
+            if (!categoryIds.isEmpty()) {
+                categoryRegistry.refresh();
+                categoryIds.forEach(this::applyCategory);
+            }
+            applyProducts(productIds);
+            appliedVersion = version;
+            if (blocked || rows.size() < REFRESH_PAGE_SIZE) {
+                // Without a hole, every change committed before this read has now been applied.
+                ahead = ahead && blocked;
+                updateContentVersion();
+                return;
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (snapshot.get() == null) {
+            rebuild();
+        }
+        applyProducts(List.of(event.productId()));
+        ahead = true;
+        updateContentVersion();
+    }
+
+    @TransactionalEventListener
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (snapshot.get() == null) {
+            rebuild();
+        }
+        applyCategory(event.categoryId());
+        ahead = true;
+        updateContentVersion();
+    }
+
+    private void updateContentVersion() {
+        contentVersion = ahead
+                ? appliedVersion + "-" + INSTANCE + "-" + snapshot.get().getVersion()
+                : String.valueOf(appliedVersion);
+    }
+
+    private void applyCategory(Byte categoryId) {
+        snapshot.set(snapshot.get().withCategory(categoryId));
+    }
+
+    // Re-reads the products and applies the ones that differ from the snapshot; a product that is
+    // no longer in the database was deleted.
+    private void applyProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        var current = snapshot.get();
+        var found = new HashMap<Long, ProductDto>();
+        transactionTemplate.executeWithoutResult(status -> productRepository.findByIdIn(productIds)
+                .forEach(product -> found.put(product.getId(), productMapper.toDto(product))));
+
+        var upserted = new ArrayList<ProductDto>();
+        var deleted = new ArrayList<Long>();
+        for (var productId : productIds) {
+            var product = found.get(productId);
+            if (product == null && current.findProduct(productId).isPresent()) {
+                deleted.add(productId);
+            } else if (product != null && current.findProduct(productId).filter(product::equals).isEmpty()) {
+                upserted.add(product);
+            }
+        }
+        if (upserted.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+
+        var changed = new ArrayList<>(deleted);
+        upserted.forEach(product -> changed.add(product.getId()));
+        var patched = current.withChanges(upserted, deleted);
+        snapshot.set(patched);
+        eventPublisher.publishEvent(new CatalogSnapshotChangedEvent(patched, changed));
+    }
+}
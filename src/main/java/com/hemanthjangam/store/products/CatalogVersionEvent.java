@@ -0,0 +1,8 @@
+package com.hemanthjangam.store.products;
+
+/**
+ * Latest catalog change-log version written by a transaction. Broadcast after commit so
+ * subscribers know to pull {@code /products/changes}.
+ */
+public record CatalogVersionEvent(long version) {
+}
@@ -1,6 +1,7 @@
 package com.hemanthjangam.store.products;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hemanthjangam.store.common.ImageVariants;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -37,4 +38,8 @@ public class Category {
     public Category(byte id) {
         this.id = id;
     }
+
+    public ImageVariants getImages() {
+        return ImageVariants.of(imageUrl);
+    }
 }
\ No newline at end of file
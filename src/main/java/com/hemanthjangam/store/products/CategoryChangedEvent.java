@@ -0,0 +1,4 @@
+package com.hemanthjangam.store.products;
+
+public record CategoryChangedEvent(Byte categoryId) {
+}
@@ -8,8 +8,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.List;
-
 @RestController
 @AllArgsConstructor
 @RequestMapping("/categories")
@@ -17,9 +15,11 @@ public class CategoryController {
 
     private final CategoryService categoryService;
 
-    @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllCategories() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(categoryService.getAllCategoriesJson());
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -29,6 +29,19 @@ public class CategoryController {
             UriComponentsBuilder uriBuilder) {
         Category savedCategory = categoryService.createCategory(categoryDto, file);
 
+        return created(savedCategory, uriBuilder);
+    }
+
+    // Takes the imageUrl returned by POST /images, whose body is streamed to disk, so creating a
+    // category does not go through a container-buffered multipart part.
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Category> createCategory(
+            @Valid @RequestBody CategoryDto categoryDto,
+            UriComponentsBuilder uriBuilder) {
+        return created(categoryService.createCategory(categoryDto), uriBuilder);
+    }
+
+    private static ResponseEntity<Category> created(Category savedCategory, UriComponentsBuilder uriBuilder) {
         var uri = uriBuilder.path("/categories/{id}")
                 .buildAndExpand(savedCategory.getId())
                 .toUri();
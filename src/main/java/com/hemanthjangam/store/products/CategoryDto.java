@@ -1,5 +1,6 @@
 package com.hemanthjangam.store.products;
 
+import com.hemanthjangam.store.common.ImageVariants;
 import lombok.Data;
 import jakarta.validation.constraints.NotEmpty;
 
@@ -11,4 +12,8 @@ public class CategoryDto {
     private String name;
 
     private String imageUrl;
+
+    public ImageVariants getImages() {
+        return ImageVariants.of(imageUrl);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.hemanthjangam.store.products;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * All categories held in memory. Category ids are a TINYINT, so the registry is a dense 256-slot
+ * array and a lookup is an array index. The JSON body of {@code GET /categories} is serialized once
+ * per change rather than once per request. It is reloaded after a local category write and when
+ * {@link CatalogSnapshotService} reads a category change made on another node.
+ */
+@Slf4j
+@Component
+public class CategoryRegistry {
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile Entries entries;
+
+    public CategoryRegistry(CategoryRepository categoryRepository, ObjectMapper objectMapper) {
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // A miss falls back to the database: the category may have been created on another node and
+    // not yet reached this one through the change log.
+    public Optional<Category> find(Byte id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        var category = current().byId[id & 0xFF];
+        if (category == null && categoryRepository.existsById(id)) {
+            refresh();
+            category = current().byId[id & 0xFF];
+        }
+        return Optional.ofNullable(category);
+    }
+
+    public boolean contains(Byte id) {
+        return find(id).isPresent();
+    }
+
+    public String nameOf(Byte id) {
+        return find(id).map(Category::getName).orElse(null);
+    }
+
+    public List<Category> getCategories() {
+        return current().categories;
+    }
+
+    public byte[] getCategoriesJson() {
+        return current().json;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        var byId = new Category[256];
+        var categories = new ArrayList<Category>();
+        categoryRepository.findAll().forEach(category -> {
+            byId[category.getId() & 0xFF] = category;
+            categories.add(category);
+        });
+
+        try {
+            entries = new Entries(byId, List.copyOf(categories), objectMapper.writeValueAsBytes(categories));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Could not serialize categories", exception);
+        }
+        log.info("Category registry loaded {} categories", categories.size());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        refresh();
+    }
+
+    private Entries current() {
+        var current = entries;
+        if (current == null) {
+            refresh();
+            current = entries;
+        }
+        return current;
+    }
+
+    private record Entries(Category[] byId, List<Category> categories, byte[] json) {
+    }
+}
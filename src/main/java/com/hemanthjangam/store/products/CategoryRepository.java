@@ -1,6 +1,6 @@
 package com.hemanthjangam.store.products;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface CategoryRepository extends CrudRepository<Category, Byte> {
+public interface CategoryRepository extends JpaRepository<Category, Byte> {
 }
@@ -2,12 +2,12 @@ package com.hemanthjangam.store.products;
 
 import com.hemanthjangam.store.common.FileStorageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.stream.StreamSupport;
 
 @Service
 @RequiredArgsConstructor
@@ -15,25 +15,56 @@ import java.util.stream.StreamSupport;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
     private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Category> getAllCategories() {
-        return StreamSupport.stream(categoryRepository.findAll().spliterator(), false)
-                .toList();
+        return categoryRegistry.getCategories();
+    }
+
+    public byte[] getAllCategoriesJson() {
+        return categoryRegistry.getCategoriesJson();
     }
 
     public Category getCategory(Byte id) {
-        return categoryRepository.findById(id)
+        return categoryRegistry.find(id)
                 .orElseThrow(CategoryNotFoundException::new);
     }
 
+    // Validates against the registry and hands back a lazy reference, so linking a product
+    // to its category does not issue a SELECT.
+    public Category getCategoryReference(Byte id) {
+        if (!categoryRegistry.contains(id)) {
+            throw new CategoryNotFoundException();
+        }
+        return categoryRepository.getReferenceById(id);
+    }
+
     @Transactional
     public Category createCategory(CategoryDto categoryDto, MultipartFile file) {
+        return saveCategory(categoryDto.getName(), storeImage(file));
+    }
+
+    // For images already streamed to storage through POST /images.
+    @Transactional
+    public Category createCategory(CategoryDto categoryDto) {
+        var imageUrl = categoryDto.getImageUrl();
+        if (!fileStorageService.claim(imageUrl)) {
+            throw new IllegalArgumentException("Category imageUrl must point at an uploaded image");
+        }
+        return saveCategory(categoryDto.getName(), imageUrl);
+    }
+
+    private Category saveCategory(String name, String imageUrl) {
         Category category = new Category();
-        category.setName(categoryDto.getName());
-        category.setImageUrl(storeImage(file));
+        category.setName(name);
+        category.setImageUrl(imageUrl);
+
+        var savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
 
-        return categoryRepository.save(category);
+        return savedCategory;
     }
 
     private String storeImage(MultipartFile file) {
@@ -0,0 +1,27 @@
+package com.hemanthjangam.store.products;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    JSON,
+    NDJSON,
+    CSV;
+
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            throw new IllegalArgumentException("Content-Type is required");
+        }
+
+        var mediaType = MediaType.parseMediaType(contentType);
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return NDJSON;
+        }
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return JSON;
+        }
+        if (mediaType.isCompatibleWith(MediaType.valueOf("text/csv"))) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + contentType);
+    }
+}
@@ -0,0 +1,14 @@
+package com.hemanthjangam.store.products;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class PriceBucketDto {
+    private BigDecimal from;
+    private BigDecimal to;
+    private int count;
+}
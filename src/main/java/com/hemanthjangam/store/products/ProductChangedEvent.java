@@ -0,0 +1,19 @@
+package com.hemanthjangam.store.products;
+
+/**
+ * Published by {@link ProductService} on every product write. Listeners bound to the
+ * transaction commit use it to keep in-memory read models in step with the database.
+ */
+public record ProductChangedEvent(Long productId, ProductDto product) {
+    public static ProductChangedEvent upserted(ProductDto product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -1,14 +1,22 @@
 package com.hemanthjangam.store.products;
 
+import com.hemanthjangam.store.common.FileStorageService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @AllArgsConstructor
@@ -16,6 +24,10 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final CatalogChangeService catalogChangeService;
+    private final FileStorageService fileStorageService;
 
     @GetMapping
     public List<ProductDto> getAllProducts(
@@ -23,6 +35,33 @@ public class ProductController {
         return productService.getAllProducts(categoryId);
     }
 
+    @GetMapping("/page")
+    public ProductPageDto getProductPage(
+            @RequestParam(name = "categoryId", required = false) Byte categoryId,
+            @RequestParam(name = "sort", defaultValue = "id") String sort,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "${catalog.page.default-size:20}") int size) {
+        return productService.getProductPage(categoryId, sort, cursor, size);
+    }
+
+    @GetMapping("/filter")
+    public ProductFacetsDto filterProducts(
+            @RequestParam(name = "categoryIds", required = false) Set<Byte> categoryIds,
+            @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(name = "limit", defaultValue = "${catalog.page.default-size:20}") int limit,
+            @RequestParam(name = "buckets", defaultValue = "10") int buckets) {
+        return productService.filterProducts(new ProductFilter(categoryIds, minPrice, maxPrice, query), limit, buckets);
+    }
+
+    @GetMapping("/changes")
+    public CatalogChangesDto getChanges(
+            @RequestParam(name = "since", defaultValue = "0") long since,
+            @RequestParam(name = "limit", defaultValue = "${catalog.changes.max-page-size:500}") int limit) {
+        return catalogChangeService.getChanges(since, limit);
+    }
+
     @GetMapping("{id}")
     public ResponseEntity<ProductDto> getProduct(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProduct(id));
@@ -42,6 +81,34 @@ public class ProductController {
         return ResponseEntity.created(uri).body(savedDto);
     }
 
+    @PostMapping(value = "/import", consumes = {
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ProductImportReport importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return productImportService.importProducts(body, ImportFormat.fromContentType(contentType));
+    }
+
+    @GetMapping("/export")
+    public void exportProducts(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        var exportFormat = ExportFormat.from(format);
+        var fileName = "products." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        if (gzip) {
+            try (var output = new GZIPOutputStream(response.getOutputStream(), 64 * 1024)) {
+                productExportService.export(output, exportFormat);
+            }
+        } else {
+            productExportService.export(response.getOutputStream(), exportFormat);
+        }
+    }
+
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ProductDto> updateProduct(
             @PathVariable Long id,
@@ -50,6 +117,22 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateProduct(id, productDto, file));
     }
 
+    // Raw image body instead of multipart: streamed to disk as it arrives, outside any transaction, so
+    // slow or concurrent bulk uploads hold neither a buffered part nor a database connection.
+    @PutMapping(value = "/{id}/image", consumes = {
+            MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE, "image/webp"})
+    public ProductDto replaceImage(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            @RequestHeader(value = "Content-Digest", required = false) String contentDigest,
+            InputStream body) {
+        productService.getProduct(id);
+        var imageUrl = fileStorageService.store(body, contentLength == null ? -1 : contentLength,
+                FileStorageService.sha256FromContentDigest(contentDigest));
+
+        return productService.updateImage(id, imageUrl);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
@@ -57,7 +140,16 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public List<ProductDto> searchProducts(@RequestParam("q") String query) {
-        return productService.searchProducts(query);
+    public List<ProductDto> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return productService.searchProducts(query, limit);
+    }
+
+    @GetMapping("/suggest")
+    public List<ProductSuggestionDto> suggestProducts(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "8") int limit) {
+        return productService.suggestProducts(prefix, limit);
     }
 }
@@ -0,0 +1,118 @@
+package com.hemanthjangam.store.products;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Forward-only reader for product CSV files. The first record must be a header naming the
+ * columns ({@code name}, {@code description}, {@code price}, {@code categoryId}, {@code imageUrl});
+ * quoted fields may contain commas, doubled quotes and line breaks.
+ */
+class ProductCsvReader implements ProductRowReader {
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private List<String> next;
+
+    ProductCsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+
+        var header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import is missing a header row");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        next = readRecord();
+    }
+
+    @Override
+    public boolean hasNextValue() {
+        return next != null;
+    }
+
+    @Override
+    public ProductDto nextValue() throws IOException {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+
+        var record = next;
+        next = readRecord();
+
+        var product = new ProductDto();
+        product.setName(field(record, "name"));
+        product.setDescription(field(record, "description"));
+        product.setImageUrl(field(record, "imageurl"));
+
+        var price = field(record, "price");
+        product.setPrice(price == null ? null : new BigDecimal(price));
+        var categoryId = field(record, "categoryid");
+        product.setCategoryId(categoryId == null ? null : Byte.valueOf(categoryId));
+
+        return product;
+    }
+
+    private String field(List<String> record, String column) {
+        var index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+
+        var value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<String> readRecord() throws IOException {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                if (fields.isEmpty() && field.isEmpty()) {
+                    continue;
+                }
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            throw new IOException("CSV import ends inside a quoted field");
+        }
+        if (!any || (fields.isEmpty() && field.isEmpty())) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hemanthjangam.store.products;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque cursor for keyset pagination. Encodes the sort it was issued for together with the
+ * (sort key, id) pair of the last row on the page, so the next page can seek past it.
+ */
+public final class ProductCursor {
+    private static final String SEPARATOR = "\u001F";
+
+    private ProductCursor() {
+    }
+
+    public static String encode(ProductSort sort, KeysetScrollPosition position) {
+        var keys = position.getKeys();
+        var raw = sort.name() + SEPARATOR + keys.get(sort.getProperty()) + SEPARATOR + keys.get("id");
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScrollPosition decode(String cursor, ProductSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 3 || !sort.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sort.getProperty(), sort.parseKey(parts[1]));
+            keys.put("id", Long.valueOf(parts[2]));
+
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
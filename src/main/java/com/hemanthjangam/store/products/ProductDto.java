@@ -1,5 +1,6 @@
 package com.hemanthjangam.store.products;
 
+import com.hemanthjangam.store.common.ImageVariants;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -25,4 +26,8 @@ public class ProductDto {
     private Byte categoryId;
 
     private String imageUrl;
+
+    public ImageVariants getImages() {
+        return ImageVariants.of(imageUrl);
+    }
 }
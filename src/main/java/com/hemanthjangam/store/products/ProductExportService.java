@@ -0,0 +1,128 @@
+package com.hemanthjangam.store.products;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the whole catalog to a stream straight from a forward-only JDBC cursor. Rows are
+ * serialized as they arrive, so heap usage is bounded by the fetch size rather than the catalog.
+ */
+@Slf4j
+@Service
+public class ProductExportService {
+    private static final String EXPORT_SQL = """
+            SELECT p.id, p.name, p.description, p.price, p.image_url, c.id AS category_id, c.name AS category_name
+            FROM products p
+            LEFT JOIN categories c ON c.id = p.category_id
+            ORDER BY p.id
+            """;
+    private static final String CSV_HEADER = "id,name,description,price,imageUrl,categoryId,categoryName\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(DataSource dataSource,
+                                ObjectMapper objectMapper,
+                                @Value("${catalog.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    public long export(OutputStream output, ExportFormat format) throws IOException {
+        var writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        var rows = new long[1];
+
+        try {
+            if (format == ExportFormat.NDJSON) {
+                var generator = objectMapper.getFactory().createGenerator(writer);
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.setRootValueSeparator(null);
+                jdbcTemplate.query(EXPORT_SQL, resultSet -> {
+                    writeJson(generator, resultSet);
+                    rows[0]++;
+                });
+                generator.flush();
+            } else {
+                writer.write(CSV_HEADER);
+                jdbcTemplate.query(EXPORT_SQL, resultSet -> {
+                    writeCsv(writer, resultSet);
+                    rows[0]++;
+                });
+            }
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+
+        writer.flush();
+        log.info("Exported {} products as {}", rows[0], format);
+        return rows[0];
+    }
+
+    private void writeJson(JsonGenerator generator, ResultSet resultSet) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", resultSet.getLong("id"));
+            generator.writeStringField("name", resultSet.getString("name"));
+            generator.writeStringField("description", resultSet.getString("description"));
+            generator.writeNumberField("price", resultSet.getBigDecimal("price"));
+            generator.writeStringField("imageUrl", resultSet.getString("image_url"));
+            generator.writeObjectField("categoryId", resultSet.getObject("category_id") == null ? null : resultSet.getByte("category_id"));
+            generator.writeStringField("categoryName", resultSet.getString("category_name"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void writeCsv(Writer writer, ResultSet resultSet) throws SQLException {
+        try {
+            writer.write(Long.toString(resultSet.getLong("id")));
+            writer.write(',');
+            writer.write(csv(resultSet.getString("name")));
+            writer.write(',');
+            writer.write(csv(resultSet.getString("description")));
+            writer.write(',');
+            writer.write(plain(resultSet.getBigDecimal("price")));
+            writer.write(',');
+            writer.write(csv(resultSet.getString("image_url")));
+            writer.write(',');
+            writer.write(resultSet.getObject("category_id") == null ? "" : Byte.toString(resultSet.getByte("category_id")));
+            writer.write(',');
+            writer.write(csv(resultSet.getString("category_name")));
+            writer.write('\n');
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,16 @@
+package com.hemanthjangam.store.products;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class ProductFacetsDto {
+    private List<ProductDto> items;
+    private int total;
+    private Map<Byte, Integer> categoryCounts;
+    private List<PriceBucketDto> priceHistogram;
+}
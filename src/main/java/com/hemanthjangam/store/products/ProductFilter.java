@@ -0,0 +1,14 @@
+package com.hemanthjangam.store.products;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+public record ProductFilter(Set<Byte> categoryIds, BigDecimal minPrice, BigDecimal maxPrice, String query) {
+    public boolean hasCategories() {
+        return categoryIds != null && !categoryIds.isEmpty();
+    }
+
+    public boolean hasQuery() {
+        return query != null && !query.isBlank();
+    }
+}
@@ -0,0 +1,15 @@
+package com.hemanthjangam.store.products;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ProductImportReport {
+    private long imported;
+    private long rejected;
+    private int batches;
+    private long elapsedMillis;
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,210 @@
+package com.hemanthjangam.store.products;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hemanthjangam.store.common.FileStorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a product file row by row and inserts it in JDBC batches, each committed in its own
+ * short transaction. Only one batch is held in memory at a time, so the size of the upload does
+ * not affect heap usage.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, category_id, image_url) VALUES (?, ?, ?, ?, ?)";
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogChangeService catalogChangeService;
+    private final CategoryRegistry categoryRegistry;
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                CatalogChangeService catalogChangeService,
+                                CategoryRegistry categoryRegistry,
+                                FileStorageService fileStorageService,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogChangeService = catalogChangeService;
+        this.categoryRegistry = categoryRegistry;
+        this.fileStorageService = fileStorageService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.importedRows = Counter.builder("catalog.import.rows")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("catalog.import.rows")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public ProductImportReport importProducts(InputStream input, ImportFormat format) {
+        var report = new ProductImportReport();
+        var started = System.currentTimeMillis();
+        var batch = new ArrayList<ProductDto>(batchSize);
+
+        long row = 0;
+        try {
+            var rows = open(input, format);
+            while (rows.hasNextValue()) {
+                row++;
+                ProductDto product;
+                try {
+                    product = rows.nextValue();
+                } catch (IllegalArgumentException | JsonMappingException exception) {
+                    reject(report, row, "unreadable row");
+                    continue;
+                }
+
+                var error = validate(product);
+                if (error != null) {
+                    reject(report, row, error);
+                    continue;
+                }
+
+                batch.add(product);
+                if (batch.size() == batchSize) {
+                    flush(batch, report);
+                }
+            }
+            flush(batch, report);
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Malformed import data after row " + row
+                    + "; " + report.getImported() + " rows were already imported");
+        } finally {
+            report.setElapsedMillis(System.currentTimeMillis() - started);
+            if (report.getImported() > 0) {
+                eventPublisher.publishEvent(new CatalogReloadedEvent());
+            }
+        }
+
+        log.info("Product import finished: {} imported, {} rejected in {} batches ({} ms)",
+                report.getImported(), report.getRejected(), report.getBatches(), report.getElapsedMillis());
+        return report;
+    }
+
+    private ProductRowReader open(InputStream input, ImportFormat format) throws IOException {
+        return switch (format) {
+            // MappingIterator unwraps a top-level JSON array and also reads newline-delimited values.
+            // Its hasNextValue()/nextValue() throw the parser's IOException instead of wrapping it.
+            case JSON, NDJSON -> {
+                MappingIterator<ProductDto> values = objectMapper.readerFor(ProductDto.class).readValues(input);
+                yield new ProductRowReader() {
+                    @Override
+                    public boolean hasNextValue() throws IOException {
+                        return values.hasNextValue();
+                    }
+
+                    @Override
+                    public ProductDto nextValue() throws IOException {
+                        return values.nextValue();
+                    }
+                };
+            }
+            case CSV -> new ProductCsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        };
+    }
+
+    private String validate(ProductDto product) {
+        var violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (!categoryRegistry.contains(product.getCategoryId())) {
+            return "Unknown category " + product.getCategoryId();
+        }
+        // An uploaded image must still exist; claiming it also keeps the orphan cleanup off it.
+        var imageUrl = product.getImageUrl();
+        if (imageUrl != null && imageUrl.startsWith(FileStorageService.BASE_URL_PATH) && !fileStorageService.claim(imageUrl)) {
+            return "Unknown image " + imageUrl;
+        }
+        return null;
+    }
+
+    private void flush(List<ProductDto> batch, ProductImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            var keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            var product = batch.get(i);
+                            statement.setString(1, product.getName());
+                            statement.setString(2, product.getDescription());
+                            statement.setBigDecimal(3, product.getPrice());
+                            statement.setByte(4, product.getCategoryId());
+                            statement.setString(5, product.getImageUrl());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keys);
+
+            // Exactly the rows this batch inserted, whatever else was written to products meanwhile.
+            var productIds = keys.getKeyList().stream()
+                    .map(key -> ((Number) key.values().iterator().next()).longValue())
+                    .toList();
+            catalogChangeService.recordImported(productIds);
+        });
+
+        report.setImported(report.getImported() + batch.size());
+        report.setBatches(report.getBatches() + 1);
+        importedRows.increment(batch.size());
+        log.info("Product import batch {} committed ({} rows so far)", report.getBatches(), report.getImported());
+
+        batch.clear();
+    }
+
+    private void reject(ProductImportReport report, long row, String reason) {
+        report.setRejected(report.getRejected() + 1);
+        rejectedRows.increment();
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add("Row " + row + ": " + reason);
+        }
+    }
+}
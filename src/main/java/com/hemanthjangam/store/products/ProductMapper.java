@@ -11,9 +11,15 @@ public interface ProductMapper {
     @Mapping(source = "category.id", target = "categoryId")
     ProductDto toDto(Product product);
 
+    ProductSummaryDto toSummaryDto(ProductSummary product);
+
+    CategoryDto toCategoryDto(Category category);
+
     @Mapping(target = "imageUrl", source = "imageUrl")
     CartProductDto toCartProductDto(Product product);
 
+    CartProductDto toCartProductDto(ProductDto product);
+
     Product toEntity(ProductDto productDto);
 
     @Mapping(target = "id", ignore = true)
@@ -0,0 +1,14 @@
+package com.hemanthjangam.store.products;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPageDto {
+    private List<ProductSummaryDto> items;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,14 @@
+package com.hemanthjangam.store.products;
+
+import java.io.IOException;
+
+/**
+ * Forward-only source of imported product rows. A row with a bad value fails with
+ * {@link IllegalArgumentException} or a Jackson mapping exception and reading carries on with the
+ * next row; any other {@link IOException} means the rest of the data cannot be read.
+ */
+interface ProductRowReader {
+    boolean hasNextValue() throws IOException;
+
+    ProductDto nextValue() throws IOException;
+}
@@ -0,0 +1,194 @@
+package com.hemanthjangam.store.products;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over product name, category name and description.
+ * Terms are kept in a sorted map so the last characters a user typed can be matched as a prefix.
+ * Every query token must match (AND semantics); results are ranked by where the terms matched.
+ * A token also matches as a prefix, expanded to at most {@value #MAX_PREFIX_EXPANSIONS} of the
+ * completing terms that occur in the most products.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CategoryRegistry categoryRegistry;
+
+    // Replaced as a whole on rebuild, so queries never see a half-built index.
+    private volatile Postings index = new Postings();
+
+    public ProductSearchIndex(CatalogSnapshotService catalogSnapshotService, CategoryRegistry categoryRegistry) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    public List<Long> search(String query, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return topResults(score(query), limit);
+    }
+
+    public Set<Long> matching(String query) {
+        return score(query).keySet();
+    }
+
+    private Map<Long, Integer> score(String query) {
+        var tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Map.of();
+        }
+
+        var current = index;
+        Map<Long, Integer> scores = null;
+        for (var token : tokens) {
+            var tokenScores = match(current, token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        return scores;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogReloadedEvent.class})
+    public synchronized void rebuild() {
+        var rebuilt = new Postings();
+        catalogSnapshotService.current().getProducts().forEach(product -> add(rebuilt, product));
+        index = rebuilt;
+
+        log.info("Product search index rebuilt with {} products and {} terms",
+                rebuilt.termsByProduct.size(), rebuilt.postings.size());
+    }
+
+    @EventListener
+    public synchronized void onSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        var current = index;
+        for (var productId : event.productIds()) {
+            remove(current, productId);
+            event.snapshot().findProduct(productId).ifPresent(product -> add(current, product));
+        }
+    }
+
+    private Map<Long, Integer> match(Postings index, String token) {
+        var scores = new HashMap<Long, Integer>();
+
+        var exact = index.postings.get(token);
+        if (exact != null) {
+            exact.forEach((id, weight) -> scores.merge(id, weight * 2, Math::max));
+        }
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            prefixExpansions(index, token).forEach(posting -> posting.forEach((id, weight) -> scores.merge(id, weight, Math::max)));
+        }
+
+        return scores;
+    }
+
+    // A short prefix can complete to many terms; only the MAX_PREFIX_EXPANSIONS that occur in the
+    // most products are used, so which terms are dropped does not depend on where they sort.
+    private List<Map<Long, Integer>> prefixExpansions(Postings index, String token) {
+        Comparator<Map.Entry<String, Map<Long, Integer>>> bySize = Comparator
+                .<Map.Entry<String, Map<Long, Integer>>>comparingInt(entry -> entry.getValue().size())
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+        var top = new PriorityQueue<>(bySize);
+        for (var entry : index.postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+            top.offer(entry);
+            if (top.size() > MAX_PREFIX_EXPANSIONS) {
+                top.poll();
+            }
+        }
+        return top.stream().map(Map.Entry::getValue).toList();
+    }
+
+    private List<Long> topResults(Map<Long, Integer> scores, int limit) {
+        Comparator<Map.Entry<Long, Integer>> ranking = Map.Entry.<Long, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+        var top = new PriorityQueue<>(ranking);
+        for (var entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        var results = new ArrayList<Long>(top.size());
+        while (!top.isEmpty()) {
+            results.add(top.poll().getKey());
+        }
+        return results.reversed();
+    }
+
+    private void add(Postings index, ProductDto product) {
+        var weights = new HashMap<String, Integer>();
+        tokenize(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Math::max));
+        tokenize(categoryRegistry.nameOf(product.getCategoryId())).forEach(term -> weights.merge(term, CATEGORY_WEIGHT, Math::max));
+        tokenize(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Math::max));
+
+        weights.forEach((term, weight) ->
+                index.postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(product.getId(), weight));
+        index.termsByProduct.put(product.getId(), Set.copyOf(weights.keySet()));
+    }
+
+    private void remove(Postings index, Long productId) {
+        var terms = index.termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+
+        terms.forEach(term -> index.postings.computeIfPresent(term, (key, posting) -> {
+            posting.remove(productId);
+            return posting.isEmpty() ? null : posting;
+        }));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private record Postings(ConcurrentSkipListMap<String, Map<Long, Integer>> postings,
+                            Map<Long, Set<String>> termsByProduct) {
+        Postings() {
+            this(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -11,7 +11,8 @@ import org.springframework.stereotype.Component;
 public class ProductSecurityRules implements SecurityRules {
     @Override
     public void configure(AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry registry) {
-        registry.requestMatchers(HttpMethod.GET, "/products/**").permitAll()
+        registry.requestMatchers(HttpMethod.GET, "/products/export").hasRole(Role.ADMIN.name())
+                .requestMatchers(HttpMethod.GET, "/products/**").permitAll()
                 .requestMatchers(HttpMethod.POST, "/products/**").hasRole(Role.ADMIN.name())
                 .requestMatchers(HttpMethod.PUT, "/products/**").hasRole(Role.ADMIN.name())
                 .requestMatchers(HttpMethod.DELETE, "/products/**").hasRole(Role.ADMIN.name());
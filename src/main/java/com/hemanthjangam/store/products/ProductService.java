@@ -1,12 +1,18 @@
 package com.hemanthjangam.store.products;
 
 import com.hemanthjangam.store.common.FileStorageService;
+import com.hemanthjangam.store.common.ImageCleanupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -17,55 +23,132 @@ public class ProductService {
     private final ProductMapper productMapper;
     private final CategoryService categoryService;
     private final FileStorageService fileStorageService;
+    private final ImageCleanupService imageCleanupService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${catalog.search.max-results:50}")
+    private int maxSearchResults;
+
+    @Value("${catalog.suggest.max-results:20}")
+    private int maxSuggestions;
 
     public List<ProductDto> getAllProducts(Long categoryId) {
-        List<Product> products = categoryId == null
-                ? productRepository.findAllWithCategory()
-                : productRepository.findByCategoryId(categoryId.byteValue());
+        var snapshot = catalogSnapshotService.current();
+
+        return categoryId == null
+                ? snapshot.getProducts()
+                : snapshot.getProducts(categoryId.byteValue());
+    }
+
+    public ProductPageDto getProductPage(Byte categoryId, String sortKey, String cursor, int size) {
+        var sort = ProductSort.from(sortKey);
+        var position = ProductCursor.decode(cursor, sort);
+        var limit = Limit.of(Math.max(1, Math.min(size, maxPageSize)));
+
+        var window = categoryId == null
+                ? productRepository.findSummariesBy(position, sort.toSort(), limit)
+                : productRepository.findSummariesByCategoryId(categoryId, position, sort.toSort(), limit);
 
-        return products.stream()
-                .map(productMapper::toDto)
+        var items = window.stream()
+                .map(productMapper::toSummaryDto)
                 .toList();
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = ProductCursor.encode(sort, (KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+
+        return new ProductPageDto(items, nextCursor, nextCursor != null);
     }
 
     public ProductDto getProduct(Long id) {
-        return productMapper.toDto(findProduct(id));
+        return catalogSnapshotService.current()
+                .findProduct(id)
+                .orElseThrow(ProductNotFoundException::new);
     }
 
-    public List<ProductDto> searchProducts(String query) {
-        return productRepository.searchProducts(query).stream()
-                .map(productMapper::toDto)
+    public List<ProductDto> searchProducts(String query, int limit) {
+        var snapshot = catalogSnapshotService.current();
+
+        return productSearchIndex.search(query, Math.min(limit, maxSearchResults)).stream()
+                .map(snapshot::findProduct)
+                .flatMap(Optional::stream)
                 .toList();
     }
 
+    public ProductFacetsDto filterProducts(ProductFilter filter, int limit, int buckets) {
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+
+        return catalogFacetIndex.filter(filter, Math.max(0, Math.min(limit, maxPageSize)), Math.min(buckets, 50));
+    }
+
+    public List<ProductSuggestionDto> suggestProducts(String prefix, int limit) {
+        return productSuggestionIndex.suggest(prefix, Math.min(limit, maxSuggestions));
+    }
+
     @Transactional
     public ProductDto createProduct(ProductDto productDto, MultipartFile file) {
         Product product = productMapper.toEntity(productDto);
-        product.setCategory(categoryService.getCategory(productDto.getCategoryId()));
+        product.setCategory(categoryService.getCategoryReference(productDto.getCategoryId()));
         product.setImageUrl(storeRequiredImage(file));
 
-        return productMapper.toDto(productRepository.save(product));
+        return publishUpsert(productRepository.save(product));
     }
 
     @Transactional
     public ProductDto updateProduct(Long id, ProductDto productDto, MultipartFile file) {
         Product existingProduct = findProduct(id);
+        var previousImageUrl = existingProduct.getImageUrl();
 
         productMapper.update(productDto, existingProduct);
-        existingProduct.setCategory(categoryService.getCategory(productDto.getCategoryId()));
+        existingProduct.setCategory(categoryService.getCategoryReference(productDto.getCategoryId()));
 
         if (file != null && !file.isEmpty()) {
             existingProduct.setImageUrl(fileStorageService.storeFile(file));
         } else if (productDto.getImageUrl() == null || productDto.getImageUrl().isBlank()) {
             existingProduct.setImageUrl(null);
         }
+        if (previousImageUrl != null && !previousImageUrl.equals(existingProduct.getImageUrl())) {
+            imageCleanupService.release(previousImageUrl);
+        }
 
-        return productMapper.toDto(productRepository.save(existingProduct));
+        return publishUpsert(productRepository.save(existingProduct));
+    }
+
+    @Transactional
+    public ProductDto updateImage(Long id, String imageUrl) {
+        Product product = findProduct(id);
+        var previousImageUrl = product.getImageUrl();
+
+        product.setImageUrl(imageUrl);
+        if (previousImageUrl != null && !previousImageUrl.equals(imageUrl)) {
+            imageCleanupService.release(previousImageUrl);
+        }
+
+        return publishUpsert(productRepository.save(product));
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        productRepository.delete(findProduct(id));
+        var product = findProduct(id);
+        productRepository.delete(product);
+        imageCleanupService.release(product.getImageUrl());
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    private ProductDto publishUpsert(Product product) {
+        var productDto = productMapper.toDto(product);
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(productDto));
+        return productDto;
     }
 
     private Product findProduct(Long id) {
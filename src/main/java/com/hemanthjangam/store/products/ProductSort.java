@@ -0,0 +1,49 @@
+package com.hemanthjangam.store.products;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+public enum ProductSort {
+    ID("id", Sort.Direction.ASC),
+    NAME("name", Sort.Direction.ASC),
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC);
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    ProductSort(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // Always break ties on id so every row has a unique position for the seek predicate.
+    public Sort toSort() {
+        if (this == ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    public Object parseKey(String value) {
+        return switch (property) {
+            case "id" -> Long.valueOf(value);
+            case "price" -> new BigDecimal(value);
+            default -> value;
+        };
+    }
+
+    public static ProductSort from(String value) {
+        for (var sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+}
@@ -0,0 +1,295 @@
+package com.hemanthjangam.store.products;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typeahead lookup over product names. Each name is stored once per word it contains, as the
+ * lowercased suffix starting at that word, in parallel sorted arrays. A prefix query is a binary
+ * search followed by a forward scan over the matching range, so it never touches the database or
+ * allocates per entry. Every match in the range is ranked before the result is cut to the limit:
+ * names that start with the prefix come first, then whole-word matches, then matches on earlier
+ * words and shorter names, with alphabetical order breaking ties. A one to three character prefix
+ * matches a large share of the catalog, so the ranked suggestions for every such prefix are kept
+ * precomputed and a short query is a map lookup. A product write patches the arrays copy-on-write
+ * with a linear merge of the changed products' entries and re-ranks only the short prefixes those
+ * entries start with; readers always see a complete table.
+ */
+@Slf4j
+@Component
+public class ProductSuggestionIndex {
+    private static final int SHORT_PREFIX_LENGTH = 3;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final int maxSuggestions;
+
+    private volatile Table table = Table.EMPTY;
+
+    public ProductSuggestionIndex(CatalogSnapshotService catalogSnapshotService,
+                                  @Value("${catalog.suggest.max-results:20}") int maxSuggestions) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    public List<ProductSuggestionDto> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+
+        var current = table;
+        var key = normalize(prefix);
+        if (key.length() <= SHORT_PREFIX_LENGTH && limit <= maxSuggestions) {
+            var suggestions = current.shortPrefixes.getOrDefault(key, List.of());
+            return suggestions.subList(0, Math.min(limit, suggestions.size()));
+        }
+        return current.rankRange(key, limit);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogReloadedEvent.class})
+    public synchronized void rebuild() {
+        table = Table.of(catalogSnapshotService.current().getProducts(), maxSuggestions);
+        log.info("Product suggestion index rebuilt with {} entries and {} short prefixes",
+                table.keys.length, table.shortPrefixes.size());
+    }
+
+    @EventListener
+    public synchronized void onSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        var replacements = event.productIds().stream()
+                .flatMap(productId -> event.snapshot().findProduct(productId).stream())
+                .toList();
+        table = table.replace(Set.copyOf(event.productIds()), replacements, maxSuggestions);
+    }
+
+    private static int find(Table table, long[] ranks, int size, long id) {
+        for (int slot = 0; slot < size; slot++) {
+            if (table.ids[Table.position(ranks[slot])] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int worst(long[] ranks, int size) {
+        var worst = 0;
+        for (int slot = 1; slot < size; slot++) {
+            if (ranks[slot] > ranks[worst]) {
+                worst = slot;
+            }
+        }
+        return worst;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private record Entry(String key, long id, String name, int word) {
+    }
+
+    private static final class Table {
+        private static final Table EMPTY = new Table(new String[0], new long[0], new String[0], new int[0]);
+        private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingLong(Entry::id);
+        private static final int POSITION_BITS = 31;
+        private static final int LENGTH_BITS = 16;
+        private static final int WORD_BITS = 8;
+
+        private final String[] keys;
+        private final long[] ids;
+        private final String[] names;
+        // Index of the word each key starts at within its name.
+        private final int[] words;
+        // Ranked suggestions for every prefix of up to SHORT_PREFIX_LENGTH characters.
+        private final Map<String, List<ProductSuggestionDto>> shortPrefixes = new HashMap<>();
+
+        private Table(String[] keys, long[] ids, String[] names, int[] words) {
+            this.keys = keys;
+            this.ids = ids;
+            this.names = names;
+            this.words = words;
+        }
+
+        static Table of(Collection<ProductDto> products, int limit) {
+            var entries = new ArrayList<Entry>();
+            products.forEach(product -> addEntries(product, entries));
+            entries.sort(ORDER);
+            var table = of(entries);
+            table.rankShortPrefixes(Arrays.asList(table.keys), limit);
+            return table;
+        }
+
+        // Drops every entry of the given products and merges in the entries of their replacements. The
+        // table is already sorted, so this is one linear pass instead of a sort of the whole catalog.
+        // Only the short prefixes of the dropped and added keys can rank differently afterwards.
+        Table replace(Set<Long> productIds, Collection<ProductDto> replacements, int limit) {
+            var added = new ArrayList<Entry>();
+            replacements.forEach(product -> addEntries(product, added));
+            added.sort(ORDER);
+            var changedKeys = new ArrayList<String>();
+            added.forEach(entry -> changedKeys.add(entry.key()));
+
+            var kept = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (productIds.contains(ids[i])) {
+                    changedKeys.add(keys[i]);
+                } else {
+                    kept++;
+                }
+            }
+
+            var size = kept + added.size();
+            var merged = new Table(new String[size], new long[size], new String[size], new int[size]);
+            int from = 0;
+            int next = 0;
+            for (int to = 0; to < size; to++) {
+                while (from < keys.length && productIds.contains(ids[from])) {
+                    from++;
+                }
+                if (next < added.size() && (from == keys.length || precedes(added.get(next), from))) {
+                    merged.set(to, added.get(next++));
+                } else {
+                    merged.keys[to] = keys[from];
+                    merged.ids[to] = ids[from];
+                    merged.names[to] = names[from];
+                    merged.words[to] = words[from];
+                    from++;
+                }
+            }
+
+            merged.shortPrefixes.putAll(shortPrefixes);
+            merged.rankShortPrefixes(changedKeys, limit);
+            return merged;
+        }
+
+        // The best-ranked entry of up to limit products whose keys start with key; ranks are unique,
+        // so there are no ties.
+        List<ProductSuggestionDto> rankRange(String key, int limit) {
+            var ranks = new long[limit];
+            var size = 0;
+
+            for (int i = lowerBound(key); i < keys.length; i++) {
+                if (!keys[i].startsWith(key)) {
+                    break;
+                }
+                var rank = rank(i, key);
+                var slot = find(this, ranks, size, ids[i]);
+                if (slot < 0) {
+                    if (size < limit) {
+                        ranks[size++] = rank;
+                        continue;
+                    }
+                    slot = worst(ranks, size);
+                }
+                ranks[slot] = Math.min(ranks[slot], rank);
+            }
+
+            Arrays.sort(ranks, 0, size);
+            var suggestions = new ArrayList<ProductSuggestionDto>(size);
+            for (int slot = 0; slot < size; slot++) {
+                var i = position(ranks[slot]);
+                suggestions.add(new ProductSuggestionDto(ids[i], names[i]));
+            }
+            return List.copyOf(suggestions);
+        }
+
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Packs the ranking of entry {@code i} for a matching {@code key} into one long, lower being
+         * better: not at the start of the name, not a whole word, word index, name length, and
+         * finally the entry's position, which keeps ranks unique and alphabetical among equals.
+         */
+        long rank(int i, String key) {
+            var wholeWord = keys[i].length() == key.length() || keys[i].charAt(key.length()) == ' ';
+            long rank = words[i] == 0 ? 0 : 1;
+            rank = rank << 1 | (wholeWord ? 0 : 1);
+            rank = rank << WORD_BITS | Math.min(words[i], (1 << WORD_BITS) - 1);
+            rank = rank << LENGTH_BITS | Math.min(names[i].length(), (1 << LENGTH_BITS) - 1);
+            return rank << POSITION_BITS | i;
+        }
+
+        static int position(long rank) {
+            return (int) (rank & ((1L << POSITION_BITS) - 1));
+        }
+
+        // Whether the entry sorts before entry i of this table, in ORDER.
+        private boolean precedes(Entry entry, int i) {
+            var byKey = entry.key().compareTo(keys[i]);
+            return byKey < 0 || byKey == 0 && entry.id() < ids[i];
+        }
+
+        private void rankShortPrefixes(Collection<String> changedKeys, int limit) {
+            var prefixes = new HashSet<String>();
+            for (var key : changedKeys) {
+                for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, key.length()); length++) {
+                    prefixes.add(key.substring(0, length));
+                }
+            }
+
+            for (var prefix : prefixes) {
+                var suggestions = rankRange(prefix, limit);
+                if (suggestions.isEmpty()) {
+                    shortPrefixes.remove(prefix);
+                } else {
+                    shortPrefixes.put(prefix, suggestions);
+                }
+            }
+        }
+
+        private void set(int i, Entry entry) {
+            keys[i] = entry.key();
+            ids[i] = entry.id();
+            names[i] = entry.name();
+            words[i] = entry.word();
+        }
+
+        private static Table of(List<Entry> entries) {
+            var table = new Table(new String[entries.size()], new long[entries.size()],
+                    new String[entries.size()], new int[entries.size()]);
+            for (int i = 0; i < entries.size(); i++) {
+                table.set(i, entries.get(i));
+            }
+            return table;
+        }
+
+        private static void addEntries(ProductDto product, List<Entry> entries) {
+            if (product.getName() == null || product.getName().isBlank()) {
+                return;
+            }
+
+            var key = normalize(product.getName());
+            var word = 0;
+            for (int start = 0; start < key.length(); start = key.indexOf(' ', start) + 1) {
+                entries.add(new Entry(key.substring(start), product.getId(), product.getName(), word++));
+                if (key.indexOf(' ', start) < 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.hemanthjangam.store.products;
+
+import java.math.BigDecimal;
+
+/**
+ * Closed projection for list views: selects only the columns a product card needs, so listing
+ * never reads the description or hydrates managed {@link Product} entities.
+ */
+public interface ProductSummary {
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    String getImageUrl();
+
+    Byte getCategoryId();
+
+    String getCategoryName();
+}
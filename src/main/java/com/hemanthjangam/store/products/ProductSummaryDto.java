@@ -0,0 +1,20 @@
+package com.hemanthjangam.store.products;
+
+import com.hemanthjangam.store.common.ImageVariants;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductSummaryDto {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private String imageUrl;
+    private Byte categoryId;
+    private String categoryName;
+
+    public ImageVariants getImages() {
+        return ImageVariants.of(imageUrl);
+    }
+}
@@ -0,0 +1,32 @@
+-- Stock is striped across several rows per product so concurrent checkouts of the same product
+-- decrement different rows. Products without buckets are not stock-tracked.
+CREATE TABLE inventory_buckets
+(
+    product_id BIGINT  NOT NULL,
+    bucket     TINYINT NOT NULL,
+    quantity   INT     NOT NULL,
+    PRIMARY KEY (product_id, bucket),
+    CONSTRAINT inventory_buckets_products_id_fk
+        FOREIGN KEY (product_id) REFERENCES products (id)
+            ON DELETE CASCADE,
+    CONSTRAINT inventory_buckets_quantity_check CHECK (quantity >= 0)
+);
+
+-- Units taken from each bucket by a pending order, returned to the same bucket when the
+-- payment fails or is canceled.
+CREATE TABLE inventory_reservations
+(
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id   BIGINT  NOT NULL,
+    product_id BIGINT  NOT NULL,
+    bucket     TINYINT NOT NULL,
+    quantity   INT     NOT NULL,
+    CONSTRAINT inventory_reservations_orders_id_fk
+        FOREIGN KEY (order_id) REFERENCES orders (id)
+            ON DELETE CASCADE,
+    CONSTRAINT inventory_reservations_products_id_fk
+        FOREIGN KEY (product_id) REFERENCES products (id)
+            ON DELETE CASCADE
+);
+
+CREATE INDEX idx_inventory_reservations_order ON inventory_reservations (order_id);
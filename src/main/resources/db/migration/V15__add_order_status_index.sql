@@ -0,0 +1,2 @@
+-- Lets the pending-order expiry scheduler rebuild its timers on startup without a full scan.
+CREATE INDEX idx_orders_status ON orders (status);
@@ -0,0 +1,18 @@
+-- Catalog change log backing GET /products/changes. The version is the sync cursor clients keep.
+CREATE TABLE catalog_changes
+(
+    version     BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    operation   VARCHAR(8)  NOT NULL,
+    changed_at  DATETIME(3) NOT NULL
+);
+
+CREATE INDEX idx_catalog_changes_entity ON catalog_changes (entity_type, entity_id, version);
+
+-- Seed the log with the current catalog so clients starting from version 0 get a full snapshot.
+INSERT INTO catalog_changes (entity_type, entity_id, operation, changed_at)
+SELECT 'CATEGORY', id, 'UPSERT', CURRENT_TIMESTAMP(3) FROM categories ORDER BY id;
+
+INSERT INTO catalog_changes (entity_type, entity_id, operation, changed_at)
+SELECT 'PRODUCT', id, 'UPSERT', CURRENT_TIMESTAMP(3) FROM products ORDER BY id;
@@ -0,0 +1,2 @@
+-- Lets orphaned-image cleanup count the products that still reference an uploaded file.
+CREATE INDEX idx_products_image_url ON products (image_url(191));
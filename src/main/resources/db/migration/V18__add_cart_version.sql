@@ -0,0 +1 @@
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+ALTER TABLE carts ADD COLUMN updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE carts SET updated_at = date_created;
+
+CREATE INDEX idx_carts_updated_at ON carts (updated_at);
@@ -0,0 +1,8 @@
+DELETE duplicate FROM cart_items duplicate
+JOIN cart_items kept
+    ON kept.cart_id = duplicate.cart_id
+    AND kept.product_id = duplicate.product_id
+    AND kept.id < duplicate.id;
+
+ALTER TABLE cart_items
+ADD CONSTRAINT unique_cart_product UNIQUE (cart_id, product_id);
@@ -0,0 +1,116 @@
+package com.hemanthjangam.store.carts;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartPricingTest {
+
+	@Test
+	void addCreatesALineAndAddsToAnExistingOne() {
+		var pricing = new CartPricing();
+		pricing.add(1L, 250, 2);
+		pricing.add(2L, 1099, 1);
+		var line = pricing.add(1L, 250, 3);
+
+		assertThat(line.getQuantity()).isEqualTo(5);
+		assertThat(line.getTotalMinor()).isEqualTo(1250);
+		assertThat(pricing.totalMinor()).isEqualTo(2349);
+		assertThat(pricing.total()).isEqualByComparingTo("23.49");
+		assertThat(pricing.lines()).extracting(CartPricing.Line::getProductId).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void addAtANewPriceRepricesTheWholeLine() {
+		var pricing = new CartPricing();
+		pricing.add(1L, 250, 2);
+		pricing.add(1L, 300, 1);
+
+		assertThat(pricing.line(1L).getTotalMinor()).isEqualTo(900);
+		assertThat(pricing.totalMinor()).isEqualTo(900);
+	}
+
+	@Test
+	void setQuantityReplacesTheLineTotal() {
+		var pricing = new CartPricing();
+		pricing.add(1L, 250, 2);
+		pricing.add(2L, 100, 1);
+
+		assertThat(pricing.setQuantity(1L, 275, 4).getTotalMinor()).isEqualTo(1100);
+		assertThat(pricing.totalMinor()).isEqualTo(1200);
+		assertThat(pricing.setQuantity(3L, 100, 1)).isNull();
+		assertThat(pricing.totalMinor()).isEqualTo(1200);
+	}
+
+	@Test
+	void repriceAdjustsTheTotalByTheLineDifference() {
+		var pricing = new CartPricing();
+		pricing.add(1L, 250, 2);
+		pricing.add(2L, 100, 3);
+
+		pricing.reprice(1L, 199);
+		pricing.reprice(3L, 999);
+
+		assertThat(pricing.line(1L).getUnitPriceMinor()).isEqualTo(199);
+		assertThat(pricing.totalMinor()).isEqualTo(698);
+	}
+
+	@Test
+	void removeSubtractsTheLine() {
+		var pricing = new CartPricing();
+		pricing.add(1L, 250, 2);
+		pricing.add(2L, 100, 3);
+
+		assertThat(pricing.remove(1L)).isTrue();
+		assertThat(pricing.remove(1L)).isFalse();
+		assertThat(pricing.totalMinor()).isEqualTo(300);
+		pricing.remove(2L);
+		assertThat(pricing.isEmpty()).isTrue();
+		assertThat(pricing.totalMinor()).isZero();
+	}
+
+	@Test
+	void copyIsIndependentOfTheOriginal() {
+		var pricing = new CartPricing();
+		pricing.add(1L, 250, 2);
+		pricing.add(2L, 100, 3);
+
+		var copy = pricing.copy();
+		copy.setQuantity(1L, 250, 10);
+		copy.remove(2L);
+
+		assertThat(copy.totalMinor()).isEqualTo(2500);
+		assertThat(pricing.totalMinor()).isEqualTo(800);
+		assertThat(pricing.line(1L).getQuantity()).isEqualTo(2);
+		assertThat(pricing.lines()).extracting(CartPricing.Line::getProductId).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void overflowingALineTotalFailsAndLeavesTheCartUnchanged() {
+		var pricing = new CartPricing();
+		pricing.add(1L, 100, 1);
+		pricing.add(2L, Long.MAX_VALUE / 2, 1);
+
+		assertThatThrownBy(() -> pricing.setQuantity(2L, Long.MAX_VALUE / 2, 3)).isInstanceOf(ArithmeticException.class);
+		assertThat(pricing.line(2L).getQuantity()).isEqualTo(1);
+		assertThat(pricing.totalMinor()).isEqualTo(100 + Long.MAX_VALUE / 2);
+	}
+
+	@Test
+	void overflowingTheCartTotalFails() {
+		var pricing = new CartPricing();
+		pricing.add(1L, Long.MAX_VALUE / 2, 1);
+
+		assertThatThrownBy(() -> pricing.add(2L, Long.MAX_VALUE / 2 + 2, 1)).isInstanceOf(ArithmeticException.class);
+	}
+
+	@Test
+	void convertsBetweenMinorUnitsAndDecimals() {
+		assertThat(CartPricing.toMinor(new BigDecimal("12.345"))).isEqualTo(1235);
+		assertThat(CartPricing.toMinor(new BigDecimal("7"))).isEqualTo(700);
+		assertThat(CartPricing.toDecimal(1235)).isEqualTo(new BigDecimal("12.35"));
+	}
+}
@@ -0,0 +1,43 @@
+package com.hemanthjangam.store.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageResourceHandlerTest {
+	private static final long LENGTH = 1000;
+
+	@Test
+	void parsesClosedRanges() {
+		assertThat(ImageResourceHandler.parseRange("bytes=0-499", LENGTH)).containsExactly(0, 499);
+		assertThat(ImageResourceHandler.parseRange("bytes=500-500", LENGTH)).containsExactly(500, 500);
+	}
+
+	@Test
+	void clampsTheEndToTheLastByte() {
+		assertThat(ImageResourceHandler.parseRange("bytes=900-", LENGTH)).containsExactly(900, 999);
+		assertThat(ImageResourceHandler.parseRange("bytes=900-5000", LENGTH)).containsExactly(900, 999);
+	}
+
+	@Test
+	void parsesSuffixRanges() {
+		assertThat(ImageResourceHandler.parseRange("bytes=-100", LENGTH)).containsExactly(900, 999);
+		assertThat(ImageResourceHandler.parseRange("bytes=-5000", LENGTH)).containsExactly(0, 999);
+	}
+
+	@Test
+	void rejectsRangesOutsideTheFile() {
+		assertThat(ImageResourceHandler.parseRange("bytes=1000-", LENGTH)).isEmpty();
+		assertThat(ImageResourceHandler.parseRange("bytes=500-400", LENGTH)).isEmpty();
+		assertThat(ImageResourceHandler.parseRange("bytes=-0", LENGTH)).isEmpty();
+		assertThat(ImageResourceHandler.parseRange("bytes=0-", 0)).isEmpty();
+	}
+
+	@Test
+	void ignoresHeadersItCannotServe() {
+		assertThat(ImageResourceHandler.parseRange("items=0-10", LENGTH)).isNull();
+		assertThat(ImageResourceHandler.parseRange("bytes=0-10,20-30", LENGTH)).isNull();
+		assertThat(ImageResourceHandler.parseRange("bytes=10", LENGTH)).isNull();
+		assertThat(ImageResourceHandler.parseRange("bytes=a-b", LENGTH)).isNull();
+	}
+}
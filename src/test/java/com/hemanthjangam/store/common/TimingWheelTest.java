@@ -0,0 +1,124 @@
+package com.hemanthjangam.store.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+	private static final long TICK = 1000;
+	// Ticks covered by all four levels of 64 slots.
+	private static final long SPAN = 1L << 24;
+
+	@Test
+	void firesOnTheTickOfItsDeadline() {
+		var wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("order", 10 * TICK);
+
+		assertThat(wheel.advance(9 * TICK)).isEmpty();
+		assertThat(wheel.advance(10 * TICK)).containsExactly("order");
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void roundsDeadlinesUpToTheNextTick() {
+		var wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("order", 2 * TICK + 1);
+
+		assertThat(wheel.advance(2 * TICK)).isEmpty();
+		assertThat(wheel.advance(3 * TICK)).containsExactly("order");
+	}
+
+	@Test
+	void firesDeadlinesOnLevelBoundariesOnTime() {
+		var wheel = new TimingWheel<Long>(TICK, 0);
+		var deadlines = List.of(63L, 64L, 65L, 4095L, 4096L, 4097L, 262144L, 262145L);
+		deadlines.forEach(tick -> wheel.schedule(tick, tick * TICK));
+
+		assertThat(advanceByTick(wheel, 0, 262145)).containsExactlyElementsOf(deadlines);
+	}
+
+	@Test
+	void firesDeadlinesOnLevelBoundariesWhenStartedMidSlot() {
+		var start = 100;
+		var wheel = new TimingWheel<Long>(TICK, start * TICK);
+		var deadlines = List.of(start + 64L, 128L, 192L, 4096L, 4160L + start);
+		deadlines.forEach(tick -> wheel.schedule(tick, tick * TICK));
+
+		assertThat(advanceByTick(wheel, start, 4160 + start)).containsExactlyInAnyOrderElementsOf(deadlines);
+	}
+
+	@Test
+	void firesOnTimeWhenTheWheelJumpsAhead() {
+		var wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("near", 5 * TICK);
+		wheel.schedule("boundary", 4096 * TICK);
+		wheel.schedule("later", 5000 * TICK);
+
+		assertThat(wheel.advance(4096 * TICK)).containsExactlyInAnyOrder("near", "boundary");
+		assertThat(wheel.advance(4999 * TICK)).isEmpty();
+		assertThat(wheel.advance(5000 * TICK)).containsExactly("later");
+	}
+
+	@Test
+	void cancelledTimersNeverFire() {
+		var wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("paid", 10 * TICK);
+		wheel.schedule("cascading", 100 * TICK);
+		wheel.schedule("pending", 10 * TICK);
+
+		assertThat(wheel.cancel("paid")).isTrue();
+		assertThat(wheel.advance(70 * TICK)).containsExactly("pending");
+		assertThat(wheel.cancel("cascading")).isTrue();
+		assertThat(wheel.advance(200 * TICK)).isEmpty();
+		assertThat(wheel.cancel("paid")).isFalse();
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void reschedulingReplacesTheEarlierDeadline() {
+		var wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("order", 10 * TICK);
+		wheel.schedule("order", 300 * TICK);
+
+		assertThat(wheel.size()).isEqualTo(1);
+		assertThat(wheel.advance(299 * TICK)).isEmpty();
+		assertThat(wheel.advance(300 * TICK)).containsExactly("order");
+	}
+
+	@Test
+	void deadlinesAlreadyPastFireOnTheNextTick() {
+		var wheel = new TimingWheel<String>(TICK, 50 * TICK);
+		wheel.schedule("late", 10 * TICK);
+
+		assertThat(wheel.advance(50 * TICK)).isEmpty();
+		assertThat(wheel.advance(51 * TICK)).containsExactly("late");
+	}
+
+	@Test
+	void deadlinesBeyondTheLastLevelAreParkedAndFireOnTime() {
+		var wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("overflow", (SPAN + 100) * TICK);
+		wheel.schedule("far overflow", (3 * SPAN + 7) * TICK);
+
+		assertThat(wheel.advance((SPAN + 99) * TICK)).isEmpty();
+		assertThat(wheel.advance((SPAN + 100) * TICK)).containsExactly("overflow");
+		assertThat(wheel.advance((3 * SPAN + 6) * TICK)).isEmpty();
+		assertThat(wheel.advance((3 * SPAN + 7) * TICK)).containsExactly("far overflow");
+		assertThat(wheel.size()).isZero();
+	}
+
+	// Advances one tick at a time; every key is its own deadline tick, so each must fire exactly then.
+	private static List<Long> advanceByTick(TimingWheel<Long> wheel, long fromTick, long toTick) {
+		var fired = new ArrayList<Long>();
+		for (long tick = fromTick + 1; tick <= toTick; tick++) {
+			for (var key : wheel.advance(tick * TICK)) {
+				assertThat(key).isEqualTo(tick);
+				fired.add(key);
+			}
+		}
+		return fired;
+	}
+}
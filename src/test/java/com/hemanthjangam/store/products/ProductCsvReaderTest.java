@@ -0,0 +1,85 @@
+package com.hemanthjangam.store.products;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCsvReaderTest {
+
+	@Test
+	void readsRowsByHeaderName() throws IOException {
+		var rows = read("""
+				price,Name,category_id,description,imageUrl
+				12.50,Mug,3,Stoneware,/images/a.png
+				1,Spoon,4,,
+				""");
+
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(0).getName()).isEqualTo("Mug");
+		assertThat(rows.get(0).getPrice()).isEqualByComparingTo("12.50");
+		assertThat(rows.get(0).getCategoryId()).isEqualTo((byte) 3);
+		assertThat(rows.get(0).getDescription()).isEqualTo("Stoneware");
+		assertThat(rows.get(0).getImageUrl()).isEqualTo("/images/a.png");
+		assertThat(rows.get(1).getDescription()).isNull();
+		assertThat(rows.get(1).getImageUrl()).isNull();
+	}
+
+	@Test
+	void readsQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+		var rows = read("name,description,price\r\n\"Mug, large\",\"Says \"\"hi\"\"\r\non two lines\",3\r\n");
+
+		assertThat(rows).singleElement().satisfies(row -> {
+			assertThat(row.getName()).isEqualTo("Mug, large");
+			assertThat(row.getDescription()).isEqualTo("Says \"hi\"\r\non two lines");
+			assertThat(row.getPrice()).isEqualByComparingTo("3");
+		});
+	}
+
+	@Test
+	void skipsBlankLinesAndToleratesShortRows() throws IOException {
+		var rows = read("name,description,price\n\nMug\n\nSpoon,Steel");
+
+		assertThat(rows).extracting(ProductDto::getName).containsExactly("Mug", "Spoon");
+		assertThat(rows.get(0).getPrice()).isNull();
+		assertThat(rows.get(1).getDescription()).isEqualTo("Steel");
+	}
+
+	@Test
+	void badValuesFailOnlyTheirRow() throws IOException {
+		var reader = new ProductCsvReader(new StringReader("name,price\nMug,cheap\nSpoon,2\n"));
+
+		assertThatThrownBy(reader::nextValue).isInstanceOf(NumberFormatException.class);
+		assertThat(reader.nextValue().getName()).isEqualTo("Spoon");
+		assertThat(reader.hasNextValue()).isFalse();
+		assertThatThrownBy(reader::nextValue).isInstanceOf(NoSuchElementException.class);
+	}
+
+	@Test
+	void rejectsAMissingHeader() {
+		assertThatThrownBy(() -> new ProductCsvReader(new StringReader("\n\n")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsAnUnterminatedQuote() {
+		assertThatThrownBy(() -> read("name,description\nMug,\"unterminated\n"))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("quoted field");
+	}
+
+	private static List<ProductDto> read(String csv) throws IOException {
+		var reader = new ProductCsvReader(new StringReader(csv));
+		var rows = new ArrayList<ProductDto>();
+		while (reader.hasNextValue()) {
+			rows.add(reader.nextValue());
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,59 @@
+package com.hemanthjangam.store.products;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+	@Test
+	void roundTripsTheSortKeyAndId() {
+		var position = ScrollPosition.forward(Map.of("price", new BigDecimal("19.99"), "id", 42L));
+
+		var decoded = (KeysetScrollPosition) ProductCursor.decode(ProductCursor.encode(ProductSort.PRICE_DESC, position), ProductSort.PRICE_DESC);
+
+		assertThat(decoded.getKeys()).containsExactly(Map.entry("price", new BigDecimal("19.99")), Map.entry("id", 42L));
+		assertThat(decoded.scrollsForward()).isTrue();
+	}
+
+	@Test
+	void roundTripsNamesContainingCursorSyntax() {
+		var position = ScrollPosition.forward(Map.of("name", "Mug, \"large\" / 2=3", "id", 7L));
+
+		var decoded = (KeysetScrollPosition) ProductCursor.decode(ProductCursor.encode(ProductSort.NAME, position), ProductSort.NAME);
+
+		assertThat(decoded.getKeys()).containsEntry("name", "Mug, \"large\" / 2=3").containsEntry("id", 7L);
+	}
+
+	@Test
+	void blankCursorStartsAtTheFirstPage() {
+		assertThat(ProductCursor.decode(null, ProductSort.ID)).isEqualTo(ScrollPosition.keyset());
+		assertThat(ProductCursor.decode(" ", ProductSort.ID)).isEqualTo(ScrollPosition.keyset());
+	}
+
+	@Test
+	void rejectsACursorIssuedForAnotherSort() {
+		var cursor = ProductCursor.encode(ProductSort.PRICE_ASC, ScrollPosition.forward(Map.of("price", BigDecimal.TEN, "id", 1L)));
+
+		assertThatThrownBy(() -> ProductCursor.decode(cursor, ProductSort.PRICE_DESC))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid cursor");
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		assertThatThrownBy(() -> ProductCursor.decode("not base64!", ProductSort.ID))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid cursor");
+		var badId = ProductCursor.encode(ProductSort.NAME, ScrollPosition.forward(Map.of("name", "a", "id", "x")));
+		assertThatThrownBy(() -> ProductCursor.decode(badId, ProductSort.NAME))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid cursor");
+	}
+}
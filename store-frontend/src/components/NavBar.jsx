@@ -12,7 +12,7 @@ import { useAuth } from '../contexts/AuthContext';
 import { useCart } from '../contexts/CartContext';
 import { useDebounce } from '../hooks/useDebounce';
 import { searchProducts } from '../api';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function NavBar() {
   const navigate = useNavigate();
@@ -122,7 +122,7 @@ export default function NavBar() {
                   onClick={closeSuggestions}
                 >
                   <img
-                    src={resolveImageUrl(product.imageUrl, 'https://placehold.co/120x140/EEE2CF/7C2D12?text=Item')}
+                    src={resolveVariantUrl(product, 'thumbnail', 'https://placehold.co/120x140/EEE2CF/7C2D12?text=Item')}
                     alt={product.name}
                     className="suggestion-image"
                   />
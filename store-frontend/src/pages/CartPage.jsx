@@ -10,7 +10,7 @@ import {
   removeFromCart,
   updateCartItem,
 } from '../api';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function CartPage() {
   const { token } = useAuth();
@@ -149,7 +149,7 @@ export default function CartPage() {
                 <li key={item.product.id} className="list-item">
                   <Link to={`/products/${item.product.id}`}>
                     <img
-                      src={resolveImageUrl(item.product.imageUrl, 'https://placehold.co/220x260/F5E7D1/7C2D12?text=Product')}
+                      src={resolveVariantUrl(item.product, 'card', 'https://placehold.co/220x260/F5E7D1/7C2D12?text=Product')}
                       alt={item.product.name}
                       className="cart-item-image"
                     />
@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import { Link } from 'react-router-dom';
 import { getAllCategories } from '../api';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function CategoryList() {
   const [categories, setCategories] = useState([]);
@@ -62,7 +62,7 @@ export default function CategoryList() {
             className="category-card"
           >
             <img
-              src={resolveImageUrl(category.imageUrl, 'https://placehold.co/640x720/EEE2CF/52606D?text=Collection')}
+              src={resolveVariantUrl(category, 'card', 'https://placehold.co/640x720/EEE2CF/52606D?text=Collection')}
               alt={category.name}
               className="category-image"
             />
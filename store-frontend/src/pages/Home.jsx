@@ -1,7 +1,7 @@
 import React, { useEffect, useMemo, useState } from 'react';
 import { Link } from 'react-router-dom';
 import { getAllCategories, getProductsByCategory } from '../api';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function Home() {
   const [categories, setCategories] = useState([]);
@@ -90,7 +90,7 @@ export default function Home() {
             <article className="summary-card featured-product">
               <span className="eyebrow">Spotlight</span>
               <img
-                src={resolveImageUrl(spotlightProduct.imageUrl, 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Featured+Product')}
+                src={resolveVariantUrl(spotlightProduct, 'detail', 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Featured+Product')}
                 alt={spotlightProduct.name}
                 className="product-image"
                 style={{ borderRadius: '24px' }}
@@ -143,7 +143,7 @@ export default function Home() {
               className="category-card"
             >
               <img
-                src={resolveImageUrl(category.imageUrl, 'https://placehold.co/640x700/EEE2CF/52606D?text=Collection')}
+                src={resolveVariantUrl(category, 'card', 'https://placehold.co/640x700/EEE2CF/52606D?text=Collection')}
                 alt={category.name}
                 className="category-image"
               />
@@ -167,7 +167,7 @@ export default function Home() {
           {featuredProducts.map((product) => (
             <Link key={product.id} to={`/products/${product.id}`} className="product-card">
               <img
-                src={resolveImageUrl(product.imageUrl, 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Product')}
+                src={resolveVariantUrl(product, 'card', 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Product')}
                 alt={product.name}
                 className="product-image"
               />
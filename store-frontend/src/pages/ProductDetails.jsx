@@ -11,7 +11,7 @@ import {
 } from '../api';
 import { useAuth } from '../contexts/AuthContext';
 import { useCart } from '../contexts/CartContext';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function ProductDetails() {
   const { id } = useParams();
@@ -177,7 +177,7 @@ export default function ProductDetails() {
       <section className="content-box panel-grid" style={{ alignItems: 'start' }}>
         <div>
           <img
-            src={resolveImageUrl(product.imageUrl, 'https://placehold.co/900x1080/F5E7D1/7C2D12?text=Product')}
+            src={resolveVariantUrl(product, 'detail', 'https://placehold.co/900x1080/F5E7D1/7C2D12?text=Product')}
             alt={product.name}
             className="product-image"
             style={{ borderRadius: '24px' }}
@@ -2,7 +2,7 @@ import React, { useEffect, useMemo, useState } from 'react';
 import { Link, useLocation, useParams } from 'react-router-dom';
 import { getProductsByCategory } from '../api';
 import { useAuth } from '../contexts/AuthContext';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function ProductListByCategory() {
   const { categoryId } = useParams();
@@ -71,7 +71,7 @@ export default function ProductListByCategory() {
             <article key={product.id} className="product-card">
               <Link to={`/products/${product.id}`}>
                 <img
-                  src={resolveImageUrl(product.imageUrl, 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Product')}
+                  src={resolveVariantUrl(product, 'card', 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Product')}
                   alt={product.name}
                   className="product-image"
                 />
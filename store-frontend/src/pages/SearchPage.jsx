@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import { Link, useSearchParams } from 'react-router-dom';
 import { searchProducts } from '../api';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function SearchPage() {
   const [searchParams] = useSearchParams();
@@ -74,7 +74,7 @@ export default function SearchPage() {
           {products.map((product) => (
             <Link key={product.id} to={`/products/${product.id}`} className="product-card">
               <img
-                src={resolveImageUrl(product.imageUrl, 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Product')}
+                src={resolveVariantUrl(product, 'card', 'https://placehold.co/640x760/F5E7D1/7C2D12?text=Product')}
                 alt={product.name}
                 className="product-image"
               />
@@ -3,7 +3,7 @@ import { Link } from 'react-router-dom';
 import { HiOutlineTrash } from 'react-icons/hi';
 import { getWishlist, removeFromWishlist } from '../api';
 import { useAuth } from '../contexts/AuthContext';
-import { resolveImageUrl } from '../utils/media';
+import { resolveVariantUrl } from '../utils/media';
 
 export default function WishlistPage() {
   const { token } = useAuth();
@@ -94,7 +94,7 @@ export default function WishlistPage() {
               <li key={product.id} className="list-item">
                 <Link to={`/products/${product.id}`}>
                   <img
-                    src={resolveImageUrl(product.imageUrl, 'https://placehold.co/220x260/F5E7D1/7C2D12?text=Product')}
+                    src={resolveVariantUrl(product, 'card', 'https://placehold.co/220x260/F5E7D1/7C2D12?text=Product')}
                     alt={product.name}
                     className="cart-item-image"
                   />
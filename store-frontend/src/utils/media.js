@@ -11,3 +11,9 @@ export function resolveImageUrl(imageUrl, fallbackUrl) {
 
   return `${API_BASE_URL}${imageUrl}`;
 }
+
+// Picks a resized variant ("thumbnail", "card" or "detail") from an item's `images`,
+// falling back to its original `imageUrl` for responses that predate variants.
+export function resolveVariantUrl(item, variant, fallbackUrl) {
+  return resolveImageUrl(item?.images?.[variant] ?? item?.imageUrl, fallbackUrl);
+}